@@ -0,0 +1,56 @@
+package com.fearjosh.service;
+
+import com.fearjosh.dto.GameScoreResponse;
+import com.fearjosh.model.GameScore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * convertToResponse and formatTime in isolation; they run once per row on every leaderboard read.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoreConversionBenchmark {
+
+    private final GameScoreService service = new GameScoreService();
+    private GameScore score;
+    private long shortRun;
+    private long longRun;
+
+    @Setup
+    public void setUp() {
+        shortRun = 754L;
+        longRun = 4_321L;
+        score = new GameScore(1L, "player-1", "Player One", "NORMAL", longRun, "01:12:01", LocalDateTime.now());
+    }
+
+    @Benchmark
+    public String formatTimeMinutes() {
+        return service.formatTime(shortRun);
+    }
+
+    @Benchmark
+    public String formatTimeHours() {
+        return service.formatTime(longRun);
+    }
+
+    @Benchmark
+    public GameScoreResponse convertToResponse() {
+        return service.convertToResponse(score);
+    }
+}
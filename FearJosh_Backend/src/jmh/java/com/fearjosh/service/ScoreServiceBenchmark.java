@@ -0,0 +1,107 @@
+package com.fearjosh.service;
+
+import com.fearjosh.dto.GameScoreRequest;
+import com.fearjosh.dto.GameScoreResponse;
+import com.fearjosh.dto.LeaderboardResponse;
+import com.fearjosh.dto.PlayerRankResponse;
+import com.fearjosh.repository.GameScoreRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service-layer paths against an embedded H2 seeded with 10k / 100k / 1M scores.
+ * Leaderboard builders are measured both straight from the database and through the cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class ScoreServiceBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private SeededContext seeded;
+    private GameScoreService service;
+    private GameScoreRepository repository;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        seeded = new SeededContext(rows);
+        service = seeded.bean(GameScoreService.class);
+        repository = seeded.bean(GameScoreRepository.class);
+        random = new SplittableRandom(SeededContext.SEED);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        seeded.close();
+    }
+
+    @Benchmark
+    public GameScoreResponse submitScore() {
+        // Mix of improvements and no-ops on existing players, like end-of-run traffic
+        int player = random.nextInt(rows);
+        return service.submitScore(new GameScoreRequest(SeededContext.playerId(player), "player" + player,
+                "NORMAL", 300L + random.nextInt(7_200)));
+    }
+
+    @Benchmark
+    public LeaderboardResponse leaderboardByDifficultyFromDatabase() {
+        return service.getLeaderboardByDifficulty("HARD", 10);
+    }
+
+    @Benchmark
+    public LeaderboardResponse globalLeaderboardFromDatabase() {
+        return service.getGlobalLeaderboard(10);
+    }
+
+    @Benchmark
+    public CachedLeaderboard leaderboardByDifficultyCached() {
+        return service.getCachedLeaderboard("HARD", 10);
+    }
+
+    @Benchmark
+    public PlayerRankResponse playerRankFromIndex() {
+        return service.getPlayerRank(SeededContext.playerId(random.nextInt(rows)));
+    }
+
+    @Benchmark
+    public int playerRankFromSql() {
+        return repository.getPlayerRank("HARD", 300L + random.nextInt(7_200));
+    }
+
+    @Benchmark
+    public int playerGlobalRankFromSql() {
+        return repository.getPlayerGlobalRank(300L + random.nextInt(7_200));
+    }
+
+    // Seeded names are "player<n>", so a number fragment behaves like a typed-in search term
+    @Benchmark
+    public List<GameScoreResponse> usernameSearchFromIndex() {
+        return service.searchByUsername(String.valueOf(random.nextInt(rows)), 20);
+    }
+
+    @Benchmark
+    public int usernameSearchFromSql() {
+        return repository.findByUsernameContainingIgnoreCase(String.valueOf(random.nextInt(rows))).size();
+    }
+}
@@ -0,0 +1,76 @@
+package com.fearjosh.service;
+
+import com.fearjosh.FearJoshBackendApplication;
+import com.fearjosh.model.Difficulty;
+import com.fearjosh.ranking.ScoreRankIndex;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Boots the backend without a web server against a private in-memory H2 database and seeds
+ * game_scores with {@code rows} players spread over every difficulty.
+ */
+final class SeededContext implements AutoCloseable {
+
+    static final long SEED = 20251221L;
+    private static final int BATCH = 5_000;
+
+    final ConfigurableApplicationContext context;
+    final int rows;
+
+    SeededContext(int rows) {
+        this.rows = rows;
+        this.context = new SpringApplicationBuilder(FearJoshBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench" + System.nanoTime()
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "logging.level.root=WARN",
+                        "logging.level.com.fearjosh=WARN")
+                .run();
+        seed();
+        // The index warmed on an empty table at startup; rebuild it over the seeded rows
+        bean(ScoreRankIndex.class).warm();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    static String playerId(int i) {
+        return "bench-player-" + i;
+    }
+
+    private void seed() {
+        JdbcTemplate jdbcTemplate = bean(JdbcTemplate.class);
+        GameScoreService service = bean(GameScoreService.class);
+        Difficulty[] difficulties = Difficulty.values();
+        SplittableRandom random = new SplittableRandom(SEED);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < rows; i++) {
+            long seconds = 300 + random.nextInt(7_200);
+            batch.add(new Object[]{playerId(i), "player" + i, difficulties[i % difficulties.length].name(),
+                    seconds, service.formatTime(seconds), now});
+            if (batch.size() == BATCH || i == rows - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO game_scores (player_id, username, difficulty,"
+                        + " completion_time_seconds, completion_time_formatted, completed_at) VALUES (?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,126 @@
+package com.fearjosh.wire;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fearjosh.dto.ApiResponse;
+import com.fearjosh.dto.GameScoreResponse;
+import com.fearjosh.dto.LeaderboardResponse;
+import com.fearjosh.dto.PlayerRankResponse;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode cost of leaderboard and rank responses as JSON (the application's Jackson settings)
+ * versus {@link LeaderboardWireFormat}. Payload sizes, plain and gzipped, are reported per benchmark
+ * as the secondary results bytes and gzipBytes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"10", "100"})
+    private int entries;
+
+    private ObjectMapper objectMapper;
+    private ApiResponse<LeaderboardResponse> leaderboard;
+    private ApiResponse<PlayerRankResponse> rank;
+    private int leaderboardJsonGzip;
+    private int leaderboardBinaryGzip;
+    private int rankJsonGzip;
+    private int rankBinaryGzip;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class PayloadSize {
+        public long bytes;
+        public long gzipBytes;
+
+        byte[] record(byte[] payload, int gzipped) {
+            bytes = payload.length;
+            gzipBytes = gzipped;
+            return payload;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        List<GameScoreResponse> scores = new ArrayList<>();
+        LocalDateTime completedAt = LocalDateTime.of(2026, 3, 1, 20, 15, 42);
+        for (int i = 0; i < entries; i++) {
+            long seconds = 900L + i * 37L;
+            scores.add(new GameScoreResponse((long) i + 1, "player-" + (100_000 + i), "Player" + i, "NIGHTMARE",
+                    seconds, String.format("%02d:%02d", seconds / 60, seconds % 60), completedAt.plusMinutes(i), i + 1));
+        }
+        leaderboard = ApiResponse.success(new LeaderboardResponse("NIGHTMARE", 250_000, scores));
+        rank = ApiResponse.success(new PlayerRankResponse("player-123456", "Player7", "NIGHTMARE", 1_234L, "20:34",
+                4_821, 250_000));
+
+        leaderboardJsonGzip = gzip(json(leaderboard)).length;
+        leaderboardBinaryGzip = gzip(binary(leaderboard)).length;
+        rankJsonGzip = gzip(json(rank)).length;
+        rankBinaryGzip = gzip(binary(rank)).length;
+    }
+
+    @Benchmark
+    public byte[] leaderboardJson(PayloadSize size) throws IOException {
+        return size.record(json(leaderboard), leaderboardJsonGzip);
+    }
+
+    @Benchmark
+    public byte[] leaderboardBinary(PayloadSize size) {
+        return size.record(binary(leaderboard), leaderboardBinaryGzip);
+    }
+
+    @Benchmark
+    public byte[] rankJson(PayloadSize size) throws IOException {
+        return size.record(json(rank), rankJsonGzip);
+    }
+
+    @Benchmark
+    public byte[] rankBinary(PayloadSize size) {
+        return size.record(binary(rank), rankBinaryGzip);
+    }
+
+    private byte[] json(ApiResponse<?> response) throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    private static byte[] binary(ApiResponse<?> response) {
+        return LeaderboardWireFormat.encode(response);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
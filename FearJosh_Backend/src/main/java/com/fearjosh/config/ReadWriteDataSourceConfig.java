@@ -0,0 +1,98 @@
+package com.fearjosh.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionManager;
+
+import javax.sql.DataSource;
+
+/**
+ * Active when fearjosh.datasource.read.url is set. Writes keep using spring.datasource.* and
+ * spring.datasource.hikari.*; @Transactional(readOnly = true) work goes to the read database
+ * configured under fearjosh.datasource.read.* with its own fearjosh.datasource.read.hikari.* pool.
+ * Flyway migrates the primary only, unless fearjosh.datasource.read.migrate=true (a separate
+ * local instance rather than a replica).
+ *
+ * Read-only transactions do not put into the Hibernate second-level cache (see
+ * {@link ReadOnlyCacheModeJpaDialect}), so cached GameScore and User rows always come from the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "fearjosh.datasource.read.url")
+public class ReadWriteDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties writeDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource writeDataSource(
+            @Qualifier("writeDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("fearjosh-write");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("fearjosh.datasource.read")
+    public DataSourceProperties readDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("fearjosh.datasource.read.hikari")
+    public HikariDataSource readDataSource(
+            @Qualifier("readDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("fearjosh-read");
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writeDataSource") DataSource writeDataSource,
+                                 @Qualifier("readDataSource") DataSource readDataSource) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(writeDataSource, readDataSource));
+    }
+
+    // Replaces the auto-configured one only to swap in the dialect, which afterPropertiesSet would
+    // otherwise reset to the EntityManagerFactory's
+    @Bean
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                    ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory) {
+            @Override
+            public void afterPropertiesSet() {
+                super.afterPropertiesSet();
+                setJpaDialect(new ReadOnlyCacheModeJpaDialect());
+            }
+        };
+        // The TransactionManager overload; the PlatformTransactionManager one is deprecated for removal
+        customizers.ifAvailable(customizer -> customizer.customize((TransactionManager) transactionManager));
+        return transactionManager;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "fearjosh.datasource.read.migrate", havingValue = "true")
+    public FlywayMigrationStrategy readDatabaseMigration(@Qualifier("readDataSource") DataSource readDataSource) {
+        return flyway -> {
+            flyway.migrate();
+            Flyway.configure().configuration(flyway.getConfiguration()).dataSource(readDataSource).load().migrate();
+        };
+    }
+}
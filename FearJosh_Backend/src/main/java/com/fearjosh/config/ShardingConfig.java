@@ -0,0 +1,37 @@
+package com.fearjosh.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fearjosh.service.ShardedLeaderboardService;
+import com.fearjosh.shard.ScoreShard;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Active when fearjosh.sharding.enabled=true. Opens (and migrates) every configured shard; the
+ * controller then sends submit (single, bulk and Idempotency-Key), top-N, rank, player lookup
+ * and delete to the sharded service, as do the write-behind and asynchronous submission modes.
+ */
+@Configuration
+@ConditionalOnProperty(name = "fearjosh.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ShardedLeaderboardService shardedLeaderboardService(ShardingProperties properties, ObjectMapper objectMapper) {
+        if (properties.getShards().isEmpty()) {
+            throw new IllegalStateException("fearjosh.sharding.enabled=true needs at least one fearjosh.sharding.shards entry");
+        }
+        List<ScoreShard> shards = new ArrayList<>();
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            shards.add(ScoreShard.open(shard.getName(), shard.getUrl(), shard.getUsername(), shard.getPassword(),
+                    properties.getPoolSize()));
+        }
+        return new ShardedLeaderboardService(shards, properties.getVirtualNodes(), properties.getTimeoutMs(),
+                objectMapper);
+    }
+}
@@ -0,0 +1,27 @@
+package com.fearjosh.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties("fearjosh.sharding")
+public class ShardingProperties {
+
+    private boolean enabled;
+    private int virtualNodes = 128;
+    private int poolSize = 5;
+    private long timeoutMs = 2000;
+    private List<Shard> shards = new ArrayList<>();
+
+    // The name decides placement on the hash ring, so keep it stable when adding shards
+    @Data
+    public static class Shard {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+    }
+}
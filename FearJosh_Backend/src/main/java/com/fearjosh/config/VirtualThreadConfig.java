@@ -0,0 +1,38 @@
+package com.fearjosh.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Active when spring.threads.virtual.enabled=true on a Java 21+ runtime. Spring Boot then runs
+ * Tomcat requests and @Scheduled work on virtual threads; here we bound how many of them
+ * can hold a database connection at once, matched to the Hikari pool size by default.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor boundedConcurrencyDataSourcePostProcessor(Environment environment) {
+        int maxConcurrency = environment.getProperty("fearjosh.datasource.max-concurrency", Integer.class,
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        long acquireTimeoutMs = environment.getProperty("spring.datasource.hikari.connection-timeout", Long.class, 30000L);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof BoundedConcurrencyDataSource)) {
+                    return new BoundedConcurrencyDataSource(dataSource, maxConcurrency, acquireTimeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,10 +1,18 @@
 package com.fearjosh.config;
 
+import com.fearjosh.ratelimit.RateLimitFilter;
+import com.fearjosh.ratelimit.RateLimiter;
+import com.fearjosh.wire.LeaderboardBinaryConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 public class WebConfig {
 
@@ -19,6 +27,23 @@ public class WebConfig {
                         .allowedHeaders("*")
                         .maxAge(3600);
             }
+
+            // Last, so wildcard Accept headers still get JSON
+            @Override
+            public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                converters.add(new LeaderboardBinaryConverter());
+            }
         };
     }
+
+    // In front of GameScoreController and UserController only, so actuator endpoints are never limited
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            RateLimiter rateLimiter,
+            @Value("${fearjosh.ratelimit.expensive-cost:5}") int expensiveCost) {
+        FilterRegistrationBean<RateLimitFilter> registration =
+                new FilterRegistrationBean<>(new RateLimitFilter(rateLimiter, expensiveCost));
+        registration.addUrlPatterns("/scores/*", "/users/*", "/users");
+        return registration;
+    }
 }
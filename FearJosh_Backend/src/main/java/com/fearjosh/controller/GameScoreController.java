@@ -1,13 +1,35 @@
 package com.fearjosh.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fearjosh.dto.*;
+import com.fearjosh.model.Difficulty;
+import com.fearjosh.model.LeaderboardPeriod;
+import com.fearjosh.service.AsyncSubmissionService;
+import com.fearjosh.service.CachedLeaderboard;
 import com.fearjosh.service.GameScoreService;
+import com.fearjosh.service.LeaderboardCache;
+import com.fearjosh.service.LeaderboardPayload;
+import com.fearjosh.service.LeaderboardStreamService;
+import com.fearjosh.service.ScoreIngestionService;
+import com.fearjosh.service.ShardedLeaderboardService;
+import com.fearjosh.service.SubmissionDeduplicator;
+import com.fearjosh.wire.LeaderboardWireFormat;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -18,68 +40,204 @@ public class GameScoreController {
     @Autowired
     private GameScoreService gameScoreService;
 
+    @Autowired
+    private ScoreIngestionService scoreIngestionService;
+
+    @Autowired
+    private SubmissionDeduplicator submissionDeduplicator;
+
+    @Autowired
+    private AsyncSubmissionService asyncSubmissionService;
+
+    @Autowired
+    private LeaderboardStreamService leaderboardStreamService;
+
+    // Only present in sharded mode
+    @Autowired(required = false)
+    private ShardedLeaderboardService shardedLeaderboardService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping
-    public ResponseEntity<ApiResponse<GameScoreResponse>> submitScore(
-            @Valid @RequestBody GameScoreRequest request) {
-        GameScoreResponse response = gameScoreService.submitScore(request);
+    public ResponseEntity<? extends ApiResponse<?>> submitScore(
+            @Valid @RequestBody GameScoreRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (scoreIngestionService.isEnabled()) {
+            SubmissionAckResponse ack = scoreIngestionService.enqueue(request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.success("Score accepted for processing", ack));
+        }
+        if (asyncSubmissionService.isEnabled()) {
+            SubmissionStatusResponse status = asyncSubmissionService.submit(request, idempotencyKey);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(URI.create("/scores/submissions/" + status.getTicketId()))
+                    .body(ApiResponse.success("Score accepted for processing", status));
+        }
+
+        GameScoreResponse response;
+        if (idempotencyKey != null) {
+            response = submissionDeduplicator.submit(idempotencyKey, request);
+        } else if (shardedLeaderboardService != null) {
+            response = shardedLeaderboardService.submitScore(request);
+        } else {
+            response = gameScoreService.submitScore(request);
+        }
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success("Score submitted successfully!", response));
     }
 
+    @GetMapping("/submissions/{ticketId}")
+    public ResponseEntity<ApiResponse<SubmissionStatusResponse>> getSubmissionStatus(@PathVariable String ticketId) {
+        SubmissionStatusResponse response = asyncSubmissionService.getStatus(ticketId);
+        return ResponseEntity.ok(ApiResponse.success("Submission status retrieved successfully!", response));
+    }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<ApiResponse<BulkScoreResponse>> submitScores(
+            @Valid @RequestBody BulkScoreRequest request) {
+        BulkScoreResponse response = shardedLeaderboardService != null
+                ? shardedLeaderboardService.submitScores(request.getScores())
+                : gameScoreService.submitScores(request.getScores());
+        return ResponseEntity.ok(ApiResponse.success("Scores submitted successfully!", response));
+    }
+
     @GetMapping("/leaderboard")
-    public ResponseEntity<ApiResponse<LeaderboardResponse>> getLeaderboard(
+    public ResponseEntity<?> getLeaderboard(
             @RequestParam(required = false) String difficulty,
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            WebRequest webRequest) {
+        if (shardedLeaderboardService != null) {
+            String board = difficulty == null || difficulty.isEmpty() || difficulty.equalsIgnoreCase("ALL")
+                    ? null
+                    : difficulty.toUpperCase();
+            return ResponseEntity.ok(ApiResponse.success(shardedLeaderboardService.getLeaderboard(board, limit)));
+        }
         
-        LeaderboardResponse leaderboard;
+        CachedLeaderboard leaderboard;
         if (difficulty == null || difficulty.isEmpty() || difficulty.equalsIgnoreCase("ALL")) {
-            leaderboard = gameScoreService.getGlobalLeaderboard(limit);
+            leaderboard = gameScoreService.getCachedLeaderboard(null, limit);
         } else {
-            leaderboard = gameScoreService.getLeaderboardByDifficulty(difficulty.toUpperCase(), limit);
+            leaderboard = gameScoreService.getCachedLeaderboard(difficulty.toUpperCase(), limit);
         }
         
-        return ResponseEntity.ok(ApiResponse.success(leaderboard));
+        return leaderboardResponse(leaderboard, webRequest);
     }
 
     @GetMapping("/leaderboard/global")
-    public ResponseEntity<ApiResponse<LeaderboardResponse>> getGlobalLeaderboard(
+    public ResponseEntity<?> getGlobalLeaderboard(
+            @RequestParam(defaultValue = "10") int limit,
+            WebRequest webRequest) {
+        if (shardedLeaderboardService != null) {
+            return ResponseEntity.ok(ApiResponse.success(shardedLeaderboardService.getLeaderboard(null, limit)));
+        }
+        CachedLeaderboard leaderboard = gameScoreService.getCachedLeaderboard(null, limit);
+        return leaderboardResponse(leaderboard, webRequest);
+    }
+
+    @GetMapping("/leaderboard/period/{period}")
+    public ResponseEntity<ApiResponse<PeriodLeaderboardResponse>> getPeriodLeaderboard(
+            @PathVariable String period,
+            @RequestParam(required = false) String difficulty,
+            @RequestParam(required = false) String key,
             @RequestParam(defaultValue = "10") int limit) {
-        LeaderboardResponse leaderboard = gameScoreService.getGlobalLeaderboard(limit);
+        String board = difficulty == null || difficulty.isEmpty() || difficulty.equalsIgnoreCase("ALL")
+                ? null
+                : Difficulty.fromString(difficulty).name();
+        PeriodLeaderboardResponse leaderboard = gameScoreService.getPeriodLeaderboard(
+                LeaderboardPeriod.fromString(period), board, key, limit);
         return ResponseEntity.ok(ApiResponse.success(leaderboard));
     }
 
     @GetMapping("/rank/{playerId}")
     public ResponseEntity<ApiResponse<PlayerRankResponse>> getPlayerRank(
             @PathVariable String playerId) {
-        PlayerRankResponse rankResponse = gameScoreService.getPlayerRank(playerId);
+        PlayerRankResponse rankResponse = shardedLeaderboardService != null
+                ? shardedLeaderboardService.getPlayerRank(playerId)
+                : gameScoreService.getPlayerRank(playerId);
         return ResponseEntity.ok(ApiResponse.success(rankResponse));
     }
 
     @GetMapping("/rank/{playerId}/global")
     public ResponseEntity<ApiResponse<PlayerRankResponse>> getPlayerGlobalRank(
             @PathVariable String playerId) {
-        PlayerRankResponse rankResponse = gameScoreService.getPlayerGlobalRank(playerId);
+        PlayerRankResponse rankResponse = shardedLeaderboardService != null
+                ? shardedLeaderboardService.getPlayerGlobalRank(playerId)
+                : gameScoreService.getPlayerGlobalRank(playerId);
         return ResponseEntity.ok(ApiResponse.success(rankResponse));
     }
 
+    @GetMapping("/rank/{playerId}/around")
+    public ResponseEntity<ApiResponse<NeighborhoodResponse>> getPlayerNeighborhood(
+            @PathVariable String playerId,
+            @RequestParam(defaultValue = "5") int radius) {
+        NeighborhoodResponse neighborhood = gameScoreService.getPlayerNeighborhood(playerId, radius);
+        return ResponseEntity.ok(ApiResponse.success(neighborhood));
+    }
+
+    @GetMapping("/rank/{playerId}/around/global")
+    public ResponseEntity<ApiResponse<NeighborhoodResponse>> getPlayerGlobalNeighborhood(
+            @PathVariable String playerId,
+            @RequestParam(defaultValue = "5") int radius) {
+        NeighborhoodResponse neighborhood = gameScoreService.getPlayerGlobalNeighborhood(playerId, radius);
+        return ResponseEntity.ok(ApiResponse.success(neighborhood));
+    }
+
+    @GetMapping("/rank/consistency")
+    public ResponseEntity<ApiResponse<RankIndexReport>> checkRankIndex(
+            @RequestParam(defaultValue = "100") int sample) {
+        RankIndexReport report = gameScoreService.checkRankIndex(sample);
+        return ResponseEntity.ok(ApiResponse.success(report));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<ApiResponse<DistributionStatsResponse>> getDistributionStats(
+            @RequestParam(required = false) String difficulty) {
+        String board = difficulty == null || difficulty.isEmpty() || difficulty.equalsIgnoreCase("ALL")
+                ? null
+                : Difficulty.fromString(difficulty).name();
+        DistributionStatsResponse stats = gameScoreService.getDistributionStats(board);
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+
+    @GetMapping("/stats/player/{playerId}")
+    public ResponseEntity<ApiResponse<PlayerPercentileResponse>> getPlayerPercentile(
+            @PathVariable String playerId) {
+        PlayerPercentileResponse percentile = gameScoreService.getPlayerPercentile(playerId);
+        return ResponseEntity.ok(ApiResponse.success(percentile));
+    }
+
     @GetMapping("/player/{playerId}")
     public ResponseEntity<ApiResponse<GameScoreResponse>> getPlayerScore(
             @PathVariable String playerId) {
-        GameScoreResponse score = gameScoreService.getScoreByPlayerId(playerId);
+        GameScoreResponse score = shardedLeaderboardService != null
+                ? shardedLeaderboardService.getScoreByPlayerId(playerId)
+                : gameScoreService.getScoreByPlayerId(playerId);
         return ResponseEntity.ok(ApiResponse.success(score));
     }
 
+    @GetMapping("/player/{playerId}/runs")
+    public ResponseEntity<ApiResponse<PlayerRunsResponse>> getPlayerRuns(
+            @PathVariable String playerId,
+            @RequestParam(defaultValue = "50") int limit) {
+        PlayerRunsResponse runs = gameScoreService.getPlayerRuns(playerId, limit);
+        return ResponseEntity.ok(ApiResponse.success(runs));
+    }
+
     @GetMapping("/exists/{playerId}")
     public ResponseEntity<ApiResponse<Boolean>> checkPlayerExists(
             @PathVariable String playerId) {
-        boolean exists = gameScoreService.playerExists(playerId);
+        boolean exists = shardedLeaderboardService != null
+                ? shardedLeaderboardService.playerExists(playerId)
+                : gameScoreService.playerExists(playerId);
         return ResponseEntity.ok(ApiResponse.success(exists));
     }
 
     @GetMapping("/search")
     public ResponseEntity<ApiResponse<List<GameScoreResponse>>> searchByUsername(
-            @RequestParam String username) {
-        List<GameScoreResponse> scores = gameScoreService.searchByUsername(username);
+            @RequestParam String username,
+            @RequestParam(defaultValue = "20") int limit) {
+        List<GameScoreResponse> scores = gameScoreService.searchByUsername(username, limit);
         return ResponseEntity.ok(ApiResponse.success(scores));
     }
 
@@ -89,12 +247,155 @@ public class GameScoreController {
         return ResponseEntity.ok(ApiResponse.success(scores));
     }
 
+    @GetMapping("/all/page")
+    public ResponseEntity<ApiResponse<ScorePageResponse>> getScorePage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        ScorePageResponse page = gameScoreService.getScorePage(null, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    // Server-Sent Events: one "snapshot" event, then a "diff" event per tick in which the board changed
+    @GetMapping(value = "/leaderboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLeaderboard(
+            @RequestParam(required = false) String difficulty,
+            @RequestParam(defaultValue = "10") int limit) {
+        String board = difficulty == null || difficulty.isEmpty() || difficulty.equalsIgnoreCase("ALL")
+                ? LeaderboardCache.GLOBAL_BOARD : Difficulty.fromString(difficulty).name();
+        return leaderboardStreamService.subscribe(board, limit);
+    }
+
+    @GetMapping("/leaderboard/page")
+    public ResponseEntity<ApiResponse<ScorePageResponse>> getLeaderboardPage(
+            @RequestParam(required = false) String difficulty,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int limit) {
+        String board = difficulty == null || difficulty.isEmpty() || difficulty.equalsIgnoreCase("ALL")
+                ? null : difficulty.toUpperCase();
+        ScorePageResponse page = gameScoreService.getScorePage(board, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    // Newline-delimited JSON, one GameScoreResponse per line, streamed straight from a JDBC cursor
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportScores(
+            @RequestParam(required = false) String difficulty) {
+        String board = difficulty == null || difficulty.isEmpty() || difficulty.equalsIgnoreCase("ALL")
+                ? null : difficulty.toUpperCase();
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gameScoreService.exportScores(board, score -> {
+                try {
+                    generator.writeObject(score);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.close();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     @DeleteMapping("/{playerId}")
     public ResponseEntity<ApiResponse<Void>> deleteScore(@PathVariable String playerId) {
-        gameScoreService.deleteScore(playerId);
+        if (shardedLeaderboardService != null) {
+            shardedLeaderboardService.deleteScore(playerId);
+        } else {
+            gameScoreService.deleteScore(playerId);
+        }
         return ResponseEntity.ok(ApiResponse.success("Score deleted successfully!", null));
     }
 
+    // Cached views are written from their pre-rendered bytes when the client takes JSON; the gzip
+    // and binary representations get their own ETags, as the bodies differ
+    private ResponseEntity<?> leaderboardResponse(CachedLeaderboard leaderboard, WebRequest webRequest) {
+        if (leaderboard.getEtag() == null) {
+            return ResponseEntity.ok(ApiResponse.success(leaderboard.getLeaderboard()));
+        }
+        boolean binary = acceptsBinary(webRequest);
+        LeaderboardPayload payload = !binary && acceptsJson(webRequest) ? leaderboard.getPayload() : null;
+        boolean gzip = payload != null && acceptsGzip(webRequest);
+        String etag = binary ? variantEtag(leaderboard.getEtag(), "bin")
+                : gzip ? variantEtag(leaderboard.getEtag(), "gzip")
+                : leaderboard.getEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        if (payload == null) {
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                    .body(ApiResponse.success(leaderboard.getLeaderboard()));
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        return gzip
+                ? ok.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.getGzip())
+                : ok.body(payload.getJson());
+    }
+
+    private static boolean acceptsJson(WebRequest webRequest) {
+        String accept = webRequest.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        return MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(type -> type.isCompatibleWith(MediaType.APPLICATION_JSON) && type.getQualityValue() > 0);
+    }
+
+    // True when the binary format is named and not ranked below an explicit JSON type
+    private static boolean acceptsBinary(WebRequest webRequest) {
+        String accept = webRequest.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return false;
+        }
+        double binaryQuality = 0;
+        double jsonQuality = 0;
+        for (MediaType type : MediaType.parseMediaTypes(accept)) {
+            if (type.isWildcardType() || type.isWildcardSubtype()) {
+                continue;
+            }
+            if (type.isCompatibleWith(LeaderboardWireFormat.MEDIA_TYPE)) {
+                binaryQuality = Math.max(binaryQuality, type.getQualityValue());
+            } else if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                jsonQuality = Math.max(jsonQuality, type.getQualityValue());
+            }
+        }
+        return binaryQuality > 0 && binaryQuality >= jsonQuality;
+    }
+
+    private static boolean acceptsGzip(WebRequest webRequest) {
+        String acceptEncoding = webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if ((name.equalsIgnoreCase("gzip") || name.equals("*"))
+                    && !(parts.length > 1 && parts[1].replace(" ", "").matches("q=0(\\.0*)?"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String variantEtag(String etag, String variant) {
+        return etag.substring(0, etag.length() - 1) + "-" + variant + "\"";
+    }
+
     @GetMapping("/health")
     public ResponseEntity<ApiResponse<String>> healthCheck() {
         return ResponseEntity.ok(ApiResponse.success("FearJosh Backend is running!"));
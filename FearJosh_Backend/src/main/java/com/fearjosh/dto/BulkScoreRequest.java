@@ -0,0 +1,20 @@
+package com.fearjosh.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkScoreRequest {
+
+    @NotEmpty(message = "At least one score is required")
+    @Size(max = 1000, message = "At most 1000 scores per request")
+    private List<@Valid GameScoreRequest> scores;
+}
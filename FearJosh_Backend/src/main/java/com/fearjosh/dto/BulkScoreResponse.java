@@ -0,0 +1,19 @@
+package com.fearjosh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkScoreResponse {
+
+    private int submitted;
+    private int created;
+    private int updated;
+    private int unchanged;
+    private List<BulkScoreResult> results;
+}
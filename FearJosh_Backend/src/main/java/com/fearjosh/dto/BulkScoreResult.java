@@ -0,0 +1,18 @@
+package com.fearjosh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkScoreResult {
+
+    private int index;
+    private String playerId;
+    // What submitting this item on its own, in request order, would have done
+    private SubmissionOutcome outcome;
+    // The player's stored score once the whole request has been applied
+    private GameScoreResponse score;
+}
@@ -0,0 +1,22 @@
+package com.fearjosh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistributionStatsResponse {
+
+    private String difficulty;
+    private long totalPlayers;
+    private long minSeconds;
+    private long maxSeconds;
+    // Keyed p25, p50, p75, p90, p99; values are accurate to within about 1.6%
+    private Map<String, Long> percentiles;
+    private List<HistogramBin> histogram;
+}
@@ -0,0 +1,20 @@
+package com.fearjosh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardDiff {
+
+    private String difficulty;
+    private int totalPlayers;
+    // Entries that are new on the board or whose rank, time or name changed
+    private List<GameScoreResponse> changed;
+    // Players that dropped off the board
+    private List<String> removedPlayerIds;
+}
@@ -0,0 +1,20 @@
+package com.fearjosh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NeighborhoodResponse {
+
+    private String playerId;
+    private String difficulty;
+    // Same rank as /rank: players tied on time share it, also within the window
+    private int rank;
+    private int totalPlayers;
+    private List<GameScoreResponse> leaderboard;
+}
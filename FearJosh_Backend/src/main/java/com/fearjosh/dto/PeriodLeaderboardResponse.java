@@ -0,0 +1,21 @@
+package com.fearjosh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PeriodLeaderboardResponse {
+
+    private String period;
+    private String periodKey;
+    private String difficulty;
+    // True once the window has ended and only its archived top entries remain
+    private boolean archived;
+    private int totalPlayers;
+    private List<GameScoreResponse> leaderboard;
+}
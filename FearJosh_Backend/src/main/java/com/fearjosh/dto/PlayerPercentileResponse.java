@@ -0,0 +1,20 @@
+package com.fearjosh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayerPercentileResponse {
+
+    private String playerId;
+    private String username;
+    private String difficulty;
+    private Long completionTimeSeconds;
+    private String completionTimeFormatted;
+    private long totalPlayers;
+    // Share of the other players on the same difficulty with a slower time, e.g. 87.5
+    private double beatPercent;
+}
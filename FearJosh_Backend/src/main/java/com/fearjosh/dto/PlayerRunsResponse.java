@@ -0,0 +1,17 @@
+package com.fearjosh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayerRunsResponse {
+
+    private String playerId;
+    private long totalRuns;
+    private List<GameScoreResponse> runs;
+}
@@ -0,0 +1,17 @@
+package com.fearjosh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RankIndexReport {
+
+    private boolean consistent;
+    private long indexedScores;
+    private long databaseScores;
+    private int sampledPlayers;
+    private int mismatches;
+}
@@ -0,0 +1,18 @@
+package com.fearjosh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScorePageResponse {
+
+    private String difficulty;
+    private List<GameScoreResponse> scores;
+    // Pass back as ?cursor= to fetch the next page; null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,15 @@
+package com.fearjosh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubmissionAckResponse {
+
+    private String playerId;
+    private int queuedSubmissions;
+    private int queueCapacity;
+}
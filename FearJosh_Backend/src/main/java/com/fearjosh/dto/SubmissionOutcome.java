@@ -0,0 +1,7 @@
+package com.fearjosh.dto;
+
+public enum SubmissionOutcome {
+    CREATED,
+    UPDATED,
+    UNCHANGED
+}
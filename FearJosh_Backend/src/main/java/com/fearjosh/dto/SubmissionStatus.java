@@ -0,0 +1,9 @@
+package com.fearjosh.dto;
+
+public enum SubmissionStatus {
+    QUEUED,
+    PROCESSING,
+    COMPLETED,
+    FAILED,
+    TIMED_OUT
+}
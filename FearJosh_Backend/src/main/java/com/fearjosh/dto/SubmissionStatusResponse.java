@@ -0,0 +1,24 @@
+package com.fearjosh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubmissionStatusResponse {
+
+    private String ticketId;
+    private String playerId;
+    private SubmissionStatus status;
+    private LocalDateTime acceptedAt;
+    private LocalDateTime completedAt;
+    // Set once COMPLETED: the player's stored best and its rank on that difficulty
+    private GameScoreResponse score;
+    private PlayerRankResponse rank;
+    // Set when FAILED or TIMED_OUT
+    private String error;
+}
@@ -0,0 +1,8 @@
+package com.fearjosh.exception;
+
+public class ShardUnavailableException extends RuntimeException {
+
+    public ShardUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,47 @@
+package com.fearjosh.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Hit ratio of the Hibernate second-level, natural-id and query caches since startup. The raw
+ * per-region hit/miss counters come from hibernate-micrometer (hibernate_second_level_cache_requests
+ * and friends); these gauges save recomputing the ratio on every dashboard.
+ */
+@Component
+public class HibernateCacheMetrics implements MeterBinder {
+
+    private final Statistics statistics;
+
+    @Autowired
+    public HibernateCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        ratio(registry, "second-level", Statistics::getSecondLevelCacheHitCount, Statistics::getSecondLevelCacheMissCount);
+        ratio(registry, "natural-id", Statistics::getNaturalIdCacheHitCount, Statistics::getNaturalIdCacheMissCount);
+        ratio(registry, "query", Statistics::getQueryCacheHitCount, Statistics::getQueryCacheMissCount);
+    }
+
+    private void ratio(MeterRegistry registry, String cache,
+                       ToLongFunction<Statistics> hits, ToLongFunction<Statistics> misses) {
+        Gauge.builder("fearjosh.hibernate.cache.hit.ratio", statistics, stats -> {
+                    long hit = hits.applyAsLong(stats);
+                    long total = hit + misses.applyAsLong(stats);
+                    return total == 0 ? Double.NaN : (double) hit / total;
+                })
+                .description("Hibernate cache hit ratio since startup")
+                .tag("cache", cache)
+                .register(registry);
+    }
+}
@@ -0,0 +1,94 @@
+package com.fearjosh.metrics;
+
+import com.fearjosh.model.Difficulty;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Timers and counters for the score service hot paths. Difficulty tags are normalized to the
+ * known enum names (or OTHER) so client input cannot blow up tag cardinality.
+ */
+@Component
+public class ScoreMetrics {
+
+    public static final String GLOBAL = "ALL";
+    public static final String OTHER = "OTHER";
+
+    private final MeterRegistry registry;
+
+    @Autowired
+    public ScoreMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void recordSubmit(Timer.Sample sample, String difficulty) {
+        sample.stop(timer("fearjosh.scores.submit", "Score submission latency", "difficulty", tag(difficulty)));
+    }
+
+    public void recordBulkSubmit(Timer.Sample sample, int items) {
+        sample.stop(timer("fearjosh.scores.submit.bulk", "Bulk score submission latency", "difficulty", GLOBAL));
+        registry.counter("fearjosh.scores.submit.bulk.items").increment(items);
+    }
+
+    public void recordLeaderboard(Timer.Sample sample, String difficulty) {
+        sample.stop(timer("fearjosh.scores.leaderboard", "Leaderboard read latency", "difficulty", tag(difficulty)));
+    }
+
+    public void recordRank(Timer.Sample sample, String difficulty, boolean fromIndex) {
+        sample.stop(Timer.builder("fearjosh.scores.rank")
+                .description("Player rank lookup latency")
+                .tag("difficulty", tag(difficulty))
+                .tag("source", fromIndex ? "index" : "sql")
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry));
+    }
+
+    public void cacheHit(String board) {
+        cacheCounter(board, "hit").increment();
+    }
+
+    public void cacheMiss(String board) {
+        cacheCounter(board, "miss").increment();
+    }
+
+    public void cacheBypass(String board) {
+        cacheCounter(board, "bypass").increment();
+    }
+
+    private Counter cacheCounter(String board, String result) {
+        return Counter.builder("fearjosh.leaderboard.cache")
+                .description("Leaderboard cache lookups")
+                .tag("difficulty", tag(board))
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private Timer timer(String name, String description, String tagKey, String tagValue) {
+        return Timer.builder(name)
+                .description(description)
+                .tag(tagKey, tagValue)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+
+    public static String tag(String difficulty) {
+        if (difficulty == null || GLOBAL.equalsIgnoreCase(difficulty)) {
+            return GLOBAL;
+        }
+        for (Difficulty d : Difficulty.values()) {
+            if (d.name().equalsIgnoreCase(difficulty)) {
+                return d.name();
+            }
+        }
+        return OTHER;
+    }
+}
@@ -4,12 +4,22 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "game_scores")
+@Table(name = "game_scores", indexes = {
+        @Index(name = "idx_game_scores_difficulty_time_id", columnList = "difficulty, completion_time_seconds, id"),
+        @Index(name = "idx_game_scores_time_id", columnList = "completion_time_seconds, id")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "game-scores")
+@NaturalIdCache(region = "game-scores-by-player")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,6 +29,7 @@ public class GameScore {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId
     @Column(name = "player_id", nullable = false, unique = true)
     private String playerId;
 
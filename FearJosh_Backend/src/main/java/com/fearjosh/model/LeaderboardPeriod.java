@@ -0,0 +1,60 @@
+package com.fearjosh.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Time windows for bucketed leaderboards, in UTC. Keys are 2024-05-17 (daily), 2024-W20
+ * (ISO week) and 2024-Q2 (seasons follow calendar quarters).
+ */
+public enum LeaderboardPeriod {
+    DAILY("Daily"),
+    WEEKLY("Weekly"),
+    SEASON("Season");
+
+    private final String displayName;
+
+    LeaderboardPeriod(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String keyOf(LocalDate date) {
+        switch (this) {
+            case DAILY:
+                return date.toString();
+            case WEEKLY:
+                return String.format("%d-W%02d", date.get(IsoFields.WEEK_BASED_YEAR), date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            default:
+                return date.getYear() + "-Q" + date.get(IsoFields.QUARTER_OF_YEAR);
+        }
+    }
+
+    // Exclusive end of the window containing the date
+    public LocalDateTime endOf(LocalDate date) {
+        switch (this) {
+            case DAILY:
+                return date.plusDays(1).atStartOfDay();
+            case WEEKLY:
+                return date.with(TemporalAdjusters.next(DayOfWeek.MONDAY)).atStartOfDay();
+            default:
+                LocalDate quarterStart = date.with(IsoFields.DAY_OF_QUARTER, 1);
+                return quarterStart.plusMonths(3).atStartOfDay();
+        }
+    }
+
+    public static LeaderboardPeriod fromString(String text) {
+        for (LeaderboardPeriod p : LeaderboardPeriod.values()) {
+            if (p.name().equalsIgnoreCase(text) || p.displayName.equalsIgnoreCase(text)) {
+                return p;
+            }
+        }
+        throw new IllegalArgumentException("Unknown leaderboard period: " + text);
+    }
+}
@@ -0,0 +1,112 @@
+package com.fearjosh.ranking;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts of completion times in log-linear buckets, in the style of an HDR histogram: exact
+ * below 128 seconds, then 64 buckets per power of two (under 1.6% relative error). Unlike a
+ * streaming sketch it supports removal, which a best-per-player distribution needs when a
+ * player improves or is deleted. Not thread-safe.
+ */
+public class CompletionTimeHistogram {
+
+    private static final int SUB_BUCKETS = 128;
+    private static final int HALF = SUB_BUCKETS / 2;
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int MAX_EXPONENT = 40;
+    static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * HALF;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+
+    public void add(long seconds) {
+        counts[bucketOf(seconds)]++;
+        total++;
+    }
+
+    public void remove(long seconds) {
+        int bucket = bucketOf(seconds);
+        if (counts[bucket] > 0) {
+            counts[bucket]--;
+            total--;
+        }
+    }
+
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Immutable view for readers: cumulative counts for percentile lookups in O(1) plus a
+     * histogram folded into at most {@code bins} equal-width bins between min and max.
+     */
+    public DistributionSnapshot snapshot(int bins) {
+        long[] cumulative = new long[BUCKETS];
+        long running = 0;
+        int first = -1;
+        int last = -1;
+        for (int b = 0; b < BUCKETS; b++) {
+            running += counts[b];
+            cumulative[b] = running;
+            if (counts[b] > 0) {
+                if (first < 0) {
+                    first = b;
+                }
+                last = b;
+            }
+        }
+        if (first < 0) {
+            return new DistributionSnapshot(0, 0, 0, cumulative, List.of());
+        }
+
+        long min = lowerBound(first);
+        long max = upperBound(last);
+        int binLimit = Math.max(1, bins);
+        long width = Math.max(1, (max - min + binLimit) / binLimit);
+        long[] binCounts = new long[(int) Math.min(binLimit, (max - min) / width + 1)];
+        for (int b = first; b <= last; b++) {
+            if (counts[b] > 0) {
+                long midpoint = (lowerBound(b) + upperBound(b)) / 2;
+                binCounts[(int) Math.min(binCounts.length - 1, (midpoint - min) / width)] += counts[b];
+            }
+        }
+        List<DistributionSnapshot.Bin> histogram = new ArrayList<>(binCounts.length);
+        for (int i = 0; i < binCounts.length; i++) {
+            long from = min + i * width;
+            histogram.add(new DistributionSnapshot.Bin(from, Math.min(max, from + width - 1), binCounts[i]));
+        }
+        return new DistributionSnapshot(total, min, max, cumulative, histogram);
+    }
+
+    static int bucketOf(long seconds) {
+        long value = Math.max(0, seconds);
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int shift = exponent - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * HALF + (int) (value >>> shift) - HALF;
+    }
+
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int offset = bucket - SUB_BUCKETS;
+        int shift = offset / HALF + 1;
+        return (long) (offset % HALF + HALF) << shift;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int offset = bucket - SUB_BUCKETS;
+        int shift = offset / HALF + 1;
+        return ((long) (offset % HALF + HALF + 1) << shift) - 1;
+    }
+}
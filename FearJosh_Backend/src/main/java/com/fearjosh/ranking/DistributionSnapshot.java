@@ -0,0 +1,80 @@
+package com.fearjosh.ranking;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Point-in-time distribution of completion times built by {@link CompletionTimeHistogram}.
+ * Lookups work on the cumulative bucket counts, so they do not depend on the number of players.
+ */
+public class DistributionSnapshot {
+
+    private final long total;
+    private final long min;
+    private final long max;
+    private final long[] cumulative;
+    private final List<Bin> histogram;
+
+    DistributionSnapshot(long total, long min, long max, long[] cumulative, List<Bin> histogram) {
+        this.total = total;
+        this.min = min;
+        this.max = max;
+        this.cumulative = cumulative;
+        this.histogram = histogram;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public List<Bin> getHistogram() {
+        return histogram;
+    }
+
+    // Players with a strictly slower time; equal times within bucket precision count as ties
+    public long countSlowerThan(long seconds) {
+        return total - cumulative[CompletionTimeHistogram.bucketOf(seconds)];
+    }
+
+    /**
+     * Smallest time such that at least {@code percentile}% of players are at or below it,
+     * to bucket precision; 0 when there are no players.
+     */
+    public long valueAtPercentile(double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] >= rank) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        long value = (CompletionTimeHistogram.lowerBound(low) + CompletionTimeHistogram.upperBound(low)) / 2;
+        return Math.max(min, Math.min(max, value));
+    }
+
+    @Value
+    @AllArgsConstructor
+    public static class Bin {
+
+        long fromSeconds;
+        long toSeconds;
+        long count;
+    }
+}
@@ -0,0 +1,84 @@
+package com.fearjosh.ranking;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * One leaderboard's rank trees: one per difficulty plus a global one, and the entry held for
+ * each player. Not thread-safe; owners guard it with their own lock.
+ */
+public class RankBoard {
+
+    private final Map<String, RankTree> byDifficulty = new HashMap<>();
+    private final RankTree global = new RankTree();
+    private Map<String, ScoreEntry> byPlayerId = new HashMap<>();
+
+    public ScoreEntry get(String playerId) {
+        return byPlayerId.get(playerId);
+    }
+
+    /**
+     * Tree of the given difficulty, or the global tree for null; null if the difficulty has no entries yet.
+     */
+    public RankTree tree(String difficulty) {
+        return difficulty == null ? global : byDifficulty.get(difficulty);
+    }
+
+    public int size() {
+        return global.size();
+    }
+
+    public Map<String, Integer> countsByDifficulty() {
+        Map<String, Integer> counts = new HashMap<>();
+        byDifficulty.forEach((difficulty, tree) -> counts.put(difficulty, tree.size()));
+        return counts;
+    }
+
+    public void load(List<ScoreEntry> ordered) {
+        load(ordered, entry -> true);
+    }
+
+    /**
+     * Replaces the whole board with the given entries that pass {@code keep}; they must be in
+     * leaderboard order with at most one per player. Linear in the number of entries, and the
+     * filter is applied while building, so callers need not copy the list first.
+     */
+    public void load(List<ScoreEntry> ordered, Predicate<ScoreEntry> keep) {
+        byPlayerId = new HashMap<>(ordered.size() * 4 / 3 + 1);
+        byDifficulty.clear();
+        Map<String, List<ScoreEntry>> perDifficulty = new HashMap<>();
+        for (ScoreEntry entry : ordered) {
+            if (keep.test(entry)) {
+                byPlayerId.put(entry.getPlayerId(), entry);
+                perDifficulty.computeIfAbsent(entry.getDifficulty(), d -> new ArrayList<>()).add(entry);
+            }
+        }
+        global.build(() -> ordered.stream().filter(keep).iterator());
+        perDifficulty.forEach((difficulty, entries) -> {
+            RankTree tree = new RankTree();
+            tree.build(entries);
+            byDifficulty.put(difficulty, tree);
+        });
+    }
+
+    // Returns the entry the player had before, if any
+    public ScoreEntry put(ScoreEntry entry) {
+        ScoreEntry previous = remove(entry.getPlayerId());
+        byPlayerId.put(entry.getPlayerId(), entry);
+        byDifficulty.computeIfAbsent(entry.getDifficulty(), d -> new RankTree()).insert(entry);
+        global.insert(entry);
+        return previous;
+    }
+
+    public ScoreEntry remove(String playerId) {
+        ScoreEntry previous = byPlayerId.remove(playerId);
+        if (previous != null) {
+            byDifficulty.get(previous.getDifficulty()).remove(previous);
+            global.remove(previous);
+        }
+        return previous;
+    }
+}
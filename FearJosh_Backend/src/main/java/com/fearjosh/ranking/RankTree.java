@@ -0,0 +1,170 @@
+package com.fearjosh.ranking;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Order-statistic treap of scores ordered by (completionTimeSeconds, id).
+ * Not thread-safe; {@link ScoreRankIndex} guards every instance with its lock.
+ */
+public class RankTree {
+
+    private static final class Node {
+        final ScoreEntry entry;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(ScoreEntry entry) {
+            this.entry = entry;
+        }
+    }
+
+    private Node root;
+
+    public int size() {
+        return size(root);
+    }
+
+    public void insert(ScoreEntry entry) {
+        Node[] parts = split(root, entry.getCompletionTimeSeconds(), entry.getId());
+        root = merge(merge(parts[0], new Node(entry)), parts[1]);
+    }
+
+    public void remove(ScoreEntry entry) {
+        Node[] parts = split(root, entry.getCompletionTimeSeconds(), entry.getId());
+        Node[] rest = split(parts[1], entry.getCompletionTimeSeconds(), entry.getId() + 1);
+        root = merge(parts[0], rest[1]);
+    }
+
+    public void clear() {
+        root = null;
+    }
+
+    /**
+     * Replaces the contents with entries already in leaderboard order, in O(n): the treap is
+     * built along its right spine instead of by one split and merge per entry.
+     */
+    public void build(Iterable<ScoreEntry> ordered) {
+        ArrayDeque<Node> spine = new ArrayDeque<>();
+        for (ScoreEntry entry : ordered) {
+            Node node = new Node(entry);
+            Node last = null;
+            while (!spine.isEmpty() && spine.peek().priority < node.priority) {
+                last = spine.pop();
+                update(last);
+            }
+            node.left = last;
+            if (!spine.isEmpty()) {
+                spine.peek().right = node;
+            }
+            spine.push(node);
+        }
+        Node last = null;
+        while (!spine.isEmpty()) {
+            last = spine.pop();
+            update(last);
+        }
+        root = last;
+    }
+
+    /** Number of scores strictly faster than the given time, i.e. rank - 1 with shared ranks on ties. */
+    public int countLessThan(long seconds) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.entry.getCompletionTimeSeconds() < seconds) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /** Zero-based position of the entry in leaderboard order. */
+    public int indexOf(ScoreEntry entry) {
+        int index = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.entry.compareKey(entry.getCompletionTimeSeconds(), entry.getId()) < 0) {
+                index += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return index;
+    }
+
+    /** Entries at positions [from, from + count) in leaderboard order, in O(log n + count). */
+    public List<ScoreEntry> range(int from, int count) {
+        List<ScoreEntry> result = new ArrayList<>(Math.max(0, Math.min(count, size() - from)));
+        if (count > 0 && from >= 0) {
+            collect(root, from, from + count, result);
+        }
+        return result;
+    }
+
+    private static void collect(Node node, int from, int to, List<ScoreEntry> out) {
+        if (node == null || from >= to) {
+            return;
+        }
+        int leftSize = size(node.left);
+        if (from < leftSize) {
+            collect(node.left, from, Math.min(to, leftSize), out);
+        }
+        if (from <= leftSize && leftSize < to) {
+            out.add(node.entry);
+        }
+        if (to > leftSize + 1) {
+            collect(node.right, Math.max(0, from - leftSize - 1), to - leftSize - 1, out);
+        }
+    }
+
+    // Splits into keys < (seconds, id) and keys >= (seconds, id)
+    private static Node[] split(Node node, long seconds, long id) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (node.entry.compareKey(seconds, id) < 0) {
+            Node[] parts = split(node.right, seconds, id);
+            node.right = parts[0];
+            update(node);
+            return new Node[]{node, parts[1]};
+        }
+        Node[] parts = split(node.left, seconds, id);
+        node.left = parts[1];
+        update(node);
+        return new Node[]{parts[0], node};
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+}
@@ -0,0 +1,23 @@
+package com.fearjosh.ranking;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * A contiguous slice of a leaderboard; {@code firstPosition} is the zero-based position of the
+ * first entry and {@code playerPosition} that of the player the window was centred on.
+ * {@code firstRank} is the rank of the first entry as /rank reports it, shared with the players
+ * tied on its time that sit above the window.
+ */
+@Value
+@AllArgsConstructor
+public class RankWindow {
+
+    int firstPosition;
+    int firstRank;
+    int playerPosition;
+    int total;
+    List<ScoreEntry> entries;
+}
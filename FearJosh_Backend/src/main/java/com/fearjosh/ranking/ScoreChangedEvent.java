@@ -0,0 +1,20 @@
+package com.fearjosh.ranking;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Published by {@link ScoreRankIndex} after a committed change has been applied to the index.
+ * {@code previous} is null for a new player and {@code current} is null for a deletion.
+ *
+ * Listeners run synchronously while the index write lock is held, so they receive changes in the
+ * order the index applied them and may apply them as diffs. They must stay quick and must not
+ * wait on a thread that could be waiting for the index.
+ */
+@Value
+@AllArgsConstructor
+public class ScoreChangedEvent {
+
+    ScoreEntry previous;
+    ScoreEntry current;
+}
@@ -0,0 +1,107 @@
+package com.fearjosh.ranking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Completion-time distribution per difficulty and overall, fed by the rank index events.
+ * Readers get a cached {@link DistributionSnapshot}; it is rebuilt from the fixed-size bucket
+ * array on the first read after a change, so reads never depend on the number of players.
+ */
+@Slf4j
+@Component
+public class ScoreDistributionIndex {
+
+    public static final String GLOBAL = "ALL";
+
+    @Value("${fearjosh.stats.histogram-bins:20}")
+    private int histogramBins;
+
+    private final Map<String, Distribution> distributions = new ConcurrentHashMap<>();
+
+    // Entries applied from change events before the warm-up rows arrived, by player
+    private Map<String, ScoreEntry> appliedBeforeWarm = new HashMap<>();
+    private volatile boolean ready;
+
+    private static final class Distribution {
+        final CompletionTimeHistogram histogram = new CompletionTimeHistogram();
+        volatile DistributionSnapshot snapshot;
+    }
+
+    @EventListener
+    public synchronized void onIndexWarmed(ScoreIndexWarmedEvent event) {
+        Map<String, ScoreEntry> applied = appliedBeforeWarm != null ? appliedBeforeWarm : Map.of();
+        for (ScoreEntry entry : event.getEntries()) {
+            if (!applied.containsKey(entry.getPlayerId())) {
+                add(entry);
+            }
+        }
+        appliedBeforeWarm = null;
+        ready = true;
+        log.info("Score distributions built from {} scores", event.getEntries().size());
+    }
+
+    @EventListener
+    public synchronized void onScoreChanged(ScoreChangedEvent event) {
+        ScoreEntry previous = event.getPrevious();
+        if (appliedBeforeWarm != null) {
+            // The warm-up rows are not counted yet, so only undo what an earlier event added
+            String playerId = event.getCurrent() != null ? event.getCurrent().getPlayerId() : previous.getPlayerId();
+            previous = appliedBeforeWarm.get(playerId);
+            appliedBeforeWarm.put(playerId, event.getCurrent());
+        }
+        if (previous != null) {
+            remove(previous);
+        }
+        if (event.getCurrent() != null) {
+            add(event.getCurrent());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Distribution of the given difficulty, or of all difficulties for null.
+     */
+    public DistributionSnapshot snapshot(String difficulty) {
+        String key = difficulty != null ? difficulty : GLOBAL;
+        Distribution distribution = distributions.get(key);
+        DistributionSnapshot snapshot = distribution != null ? distribution.snapshot : null;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (this) {
+            distribution = distributions.computeIfAbsent(key, k -> new Distribution());
+            if (distribution.snapshot == null) {
+                distribution.snapshot = distribution.histogram.snapshot(histogramBins);
+            }
+            return distribution.snapshot;
+        }
+    }
+
+    private void add(ScoreEntry entry) {
+        for (String key : new String[]{entry.getDifficulty(), GLOBAL}) {
+            Distribution distribution = distributions.computeIfAbsent(key, k -> new Distribution());
+            distribution.histogram.add(entry.getCompletionTimeSeconds());
+            distribution.snapshot = null;
+        }
+    }
+
+    private void remove(ScoreEntry entry) {
+        for (String key : new String[]{entry.getDifficulty(), GLOBAL}) {
+            Distribution distribution = distributions.get(key);
+            if (distribution != null) {
+                distribution.histogram.remove(entry.getCompletionTimeSeconds());
+                distribution.snapshot = null;
+            }
+        }
+    }
+}
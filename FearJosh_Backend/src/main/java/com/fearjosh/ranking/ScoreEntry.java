@@ -0,0 +1,36 @@
+package com.fearjosh.ranking;
+
+import com.fearjosh.model.GameScore;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+@AllArgsConstructor
+public class ScoreEntry {
+
+    Long id;
+    String playerId;
+    String username;
+    String difficulty;
+    Long completionTimeSeconds;
+    LocalDateTime completedAt;
+
+    public static ScoreEntry of(GameScore score) {
+        return new ScoreEntry(
+                score.getId(),
+                score.getPlayerId(),
+                score.getUsername(),
+                score.getDifficulty(),
+                score.getCompletionTimeSeconds(),
+                score.getCompletedAt()
+        );
+    }
+
+    // Ordering used by every leaderboard: fastest time first, ties broken by id
+    public int compareKey(long seconds, long otherId) {
+        int cmp = Long.compare(completionTimeSeconds, seconds);
+        return cmp != 0 ? cmp : Long.compare(id, otherId);
+    }
+}
@@ -0,0 +1,18 @@
+package com.fearjosh.ranking;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.Collection;
+
+/**
+ * Published by {@link ScoreRankIndex} once the startup load is done, carrying the rows it read.
+ * Changes committed while the table was being read arrive as {@link ScoreChangedEvent}s and win
+ * over these entries.
+ */
+@Value
+@AllArgsConstructor
+public class ScoreIndexWarmedEvent {
+
+    Collection<ScoreEntry> entries;
+}
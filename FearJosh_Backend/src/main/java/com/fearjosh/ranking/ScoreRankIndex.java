@@ -0,0 +1,404 @@
+package com.fearjosh.ranking;
+
+import com.fearjosh.dto.RankIndexReport;
+import com.fearjosh.model.GameScore;
+import com.fearjosh.repository.GameScoreJdbcRepository;
+import com.fearjosh.repository.GameScoreRepository;
+import com.fearjosh.transaction.AfterCommit;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory rank index over game_scores: one tree per difficulty plus a global one.
+ * Warmed at startup and kept current by GameScoreService after each commit.
+ *
+ * When snapshots are enabled the index is written to a local binary file periodically and on
+ * shutdown; a restart loads that file and replays only the rows changed or deleted since it was
+ * captured (from {@code replay-overlap-seconds} earlier, covering commits that reached the index
+ * after the capture and clock skew between instances), instead of reading the whole table.
+ * A missing, unreadable or too old snapshot falls back to the full read.
+ */
+@Slf4j
+@Component
+public class ScoreRankIndex {
+
+    @Autowired
+    private GameScoreRepository gameScoreRepository;
+
+    @Autowired
+    private GameScoreJdbcRepository gameScoreJdbcRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${fearjosh.snapshot.enabled:false}")
+    private boolean snapshotEnabled;
+
+    // Required and absolute when enabled, so the file does not land in whatever directory the server starts in
+    @Value("${fearjosh.snapshot.path:}")
+    private String snapshotPath;
+
+    @Value("${fearjosh.snapshot.replay-overlap-seconds:300}")
+    private long replayOverlapSeconds;
+
+    // Also how long deletions are kept for replay, so an older snapshot could miss some
+    @Value("${fearjosh.snapshot.max-age-minutes:1440}")
+    private long maxAgeMinutes;
+
+    private static final Comparator<ScoreEntry> LEADERBOARD_ORDER =
+            Comparator.comparing(ScoreEntry::getCompletionTimeSeconds).thenComparing(ScoreEntry::getId);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RankBoard board = new RankBoard();
+
+    // Players written or deleted while warm() was reading the table; their live state wins
+    private Set<String> touchedDuringWarm;
+    private volatile boolean ready;
+
+    @PostConstruct
+    void checkSnapshotPath() {
+        if (snapshotEnabled && (snapshotPath.isBlank() || !Path.of(snapshotPath).isAbsolute())) {
+            throw new IllegalStateException(
+                    "fearjosh.snapshot.enabled=true needs an absolute fearjosh.snapshot.path, got '" + snapshotPath + "'");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        warm(snapshotEnabled ? Path.of(snapshotPath) : null);
+    }
+
+    // Loads from the snapshot at the given path when usable, otherwise from the whole table
+    void warm(Path snapshotPath) {
+        lock.writeLock().lock();
+        try {
+            touchedDuringWarm = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.currentTimeMillis();
+        ScoreSnapshot snapshot = snapshotPath != null ? readSnapshot(snapshotPath) : null;
+        List<ScoreEntry> base;
+        List<ScoreEntry> changes = new ArrayList<>();
+        // Snapshot entries superseded by a replayed change or deletion; skipped, never copied out
+        Set<String> stale = new HashSet<>();
+        if (snapshot != null) {
+            LocalDateTime since = snapshot.getCapturedAt().minusSeconds(replayOverlapSeconds);
+            stale.addAll(gameScoreJdbcRepository.findDeletedSince(since));
+            gameScoreJdbcRepository.findUpdatedSince(since).forEach(score -> changes.add(ScoreEntry.of(score)));
+            changes.forEach(entry -> stale.add(entry.getPlayerId()));
+            base = snapshot.getEntries();
+        } else {
+            base = new ArrayList<>(gameScoreRepository.findAllScoreEntries());
+            base.sort(LEADERBOARD_ORDER);
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Players written or deleted during the load keep the state those writes left
+            Set<String> touched = touchedDuringWarm;
+            List<ScoreEntry> live = new ArrayList<>();
+            for (String playerId : touched) {
+                ScoreEntry entry = board.get(playerId);
+                if (entry != null) {
+                    live.add(entry);
+                }
+            }
+            board.load(base, entry -> !stale.contains(entry.getPlayerId()) && !touched.contains(entry.getPlayerId()));
+            for (ScoreEntry entry : changes) {
+                if (!touched.contains(entry.getPlayerId())) {
+                    board.put(entry);
+                }
+            }
+            live.forEach(board::put);
+            touchedDuringWarm = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Collection<ScoreEntry> entries = loadedEntries(base, stale, changes);
+        if (snapshot != null) {
+            log.info("Rank index warmed with {} scores from a snapshot plus {} changes in {} ms",
+                    entries.size(), changes.size(), System.currentTimeMillis() - start);
+        } else {
+            log.info("Rank index warmed with {} scores in {} ms", entries.size(), System.currentTimeMillis() - start);
+        }
+        eventPublisher.publishEvent(new ScoreIndexWarmedEvent(entries));
+    }
+
+    // The snapshot entries still current, then the replayed changes, as a view rather than a copy
+    private static Collection<ScoreEntry> loadedEntries(List<ScoreEntry> base, Set<String> stale,
+                                                        List<ScoreEntry> changes) {
+        int size = (stale.isEmpty() ? base.size()
+                : (int) base.stream().filter(entry -> !stale.contains(entry.getPlayerId())).count()) + changes.size();
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<ScoreEntry> iterator() {
+                return Stream.concat(base.stream().filter(entry -> !stale.contains(entry.getPlayerId())),
+                        changes.stream()).iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Scheduled(fixedDelayString = "${fearjosh.snapshot.interval-ms:300000}",
+            initialDelayString = "${fearjosh.snapshot.interval-ms:300000}")
+    public void snapshotAndPurge() {
+        int purged = gameScoreJdbcRepository.purgeDeletionsBefore(
+                LocalDateTime.now().minusMinutes(maxAgeMinutes).minusSeconds(replayOverlapSeconds));
+        if (purged > 0) {
+            log.debug("Purged {} deletion records older than any loadable snapshot", purged);
+        }
+        if (snapshotEnabled && ready) {
+            writeSnapshot(Path.of(snapshotPath));
+        }
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        if (snapshotEnabled && ready) {
+            writeSnapshot(Path.of(snapshotPath));
+        }
+    }
+
+    void writeSnapshot(Path path) {
+        long start = System.currentTimeMillis();
+        ScoreSnapshot snapshot = capture();
+        try {
+            ScoreSnapshotFile.write(path, snapshot);
+            log.info("Rank index snapshot of {} scores written to {} in {} ms",
+                    snapshot.getEntries().size(), path, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            log.warn("Could not write rank index snapshot to {}: {}", path, e.getMessage());
+        }
+    }
+
+    ScoreSnapshot capture() {
+        lock.readLock().lock();
+        try {
+            return new ScoreSnapshot(LocalDateTime.now(), board.tree(null).range(0, board.size()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void record(GameScore score) {
+        ScoreEntry entry = ScoreEntry.of(score);
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                markTouched(entry.getPlayerId());
+                ScoreEntry previous = board.put(entry);
+                // Published under the lock, so listeners see one player's changes in the order applied here
+                eventPublisher.publishEvent(new ScoreChangedEvent(previous, entry));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(GameScore score) {
+        String playerId = score.getPlayerId();
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                markTouched(playerId);
+                ScoreEntry previous = board.remove(playerId);
+                if (previous != null) {
+                    eventPublisher.publishEvent(new ScoreChangedEvent(previous, null));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public ScoreEntry findByPlayerId(String playerId) {
+        lock.readLock().lock();
+        try {
+            return board.get(playerId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getRank(String difficulty, long completionTimeSeconds) {
+        lock.readLock().lock();
+        try {
+            RankTree tree = board.tree(difficulty);
+            return (tree == null ? 0 : tree.countLessThan(completionTimeSeconds)) + 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getGlobalRank(long completionTimeSeconds) {
+        lock.readLock().lock();
+        try {
+            return board.tree(null).countLessThan(completionTimeSeconds) + 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int countByDifficulty(String difficulty) {
+        lock.readLock().lock();
+        try {
+            RankTree tree = board.tree(difficulty);
+            return tree == null ? 0 : tree.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Zero-based leaderboard position the entry's (time, id) key has, or would have, on the board
+     * of the given difficulty; a null difficulty means the global board.
+     */
+    public int positionOf(String difficulty, ScoreEntry entry) {
+        lock.readLock().lock();
+        try {
+            RankTree tree = board.tree(difficulty);
+            return tree == null ? 0 : tree.indexOf(entry);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code radius} entries on either side of the player on the board of the given
+     * difficulty (null for global), in O(log n + k). Null when the index does not hold the player.
+     */
+    public RankWindow window(String difficulty, String playerId, int radius) {
+        lock.readLock().lock();
+        try {
+            ScoreEntry entry = board.get(playerId);
+            if (entry == null || (difficulty != null && !difficulty.equals(entry.getDifficulty()))) {
+                return null;
+            }
+            RankTree tree = board.tree(difficulty);
+            int position = tree.indexOf(entry);
+            int from = Math.max(0, position - radius);
+            List<ScoreEntry> entries = tree.range(from, position - from + radius + 1);
+            int firstRank = tree.countLessThan(entries.get(0).getCompletionTimeSeconds()) + 1;
+            return new RankWindow(from, firstRank, position, tree.size(), entries);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int count() {
+        lock.readLock().lock();
+        try {
+            return board.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compares the index against the SQL rank queries for up to {@code sampleSize} players,
+     * spread evenly over the global ordering, plus the per-difficulty and total counts.
+     */
+    public RankIndexReport checkConsistency(int sampleSize) {
+        List<ScoreEntry> sample;
+        Map<String, Integer> indexedCounts;
+        int indexedTotal;
+        lock.readLock().lock();
+        try {
+            RankTree global = board.tree(null);
+            indexedTotal = global.size();
+            int step = Math.max(1, indexedTotal / Math.max(1, sampleSize));
+            sample = new ArrayList<>();
+            for (int i = 0; i < indexedTotal && sample.size() < sampleSize; i += step) {
+                sample.addAll(global.range(i, 1));
+            }
+            indexedCounts = board.countsByDifficulty();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int mismatches = 0;
+        for (ScoreEntry entry : sample) {
+            long seconds = entry.getCompletionTimeSeconds();
+            if (getRank(entry.getDifficulty(), seconds) != gameScoreRepository.getPlayerRank(entry.getDifficulty(), seconds)
+                    || getGlobalRank(seconds) != gameScoreRepository.getPlayerGlobalRank(seconds)) {
+                mismatches++;
+            }
+        }
+        for (Map.Entry<String, Integer> count : indexedCounts.entrySet()) {
+            if (gameScoreRepository.countByDifficulty(count.getKey()) != count.getValue()) {
+                mismatches++;
+            }
+        }
+
+        long databaseTotal = gameScoreRepository.count();
+        if (databaseTotal != indexedTotal) {
+            mismatches++;
+        }
+        if (mismatches > 0) {
+            log.warn("Rank index drifted from database: {} mismatches ({} indexed, {} in database)",
+                    mismatches, indexedTotal, databaseTotal);
+        }
+        return new RankIndexReport(mismatches == 0, indexedTotal, databaseTotal, sample.size(), mismatches);
+    }
+
+    private ScoreSnapshot readSnapshot(Path path) {
+        if (!Files.exists(path)) {
+            log.info("No rank index snapshot at {}, reading the whole table", path);
+            return null;
+        }
+        try {
+            ScoreSnapshot snapshot = ScoreSnapshotFile.read(path);
+            if (snapshot.getCapturedAt().isBefore(LocalDateTime.now().minusMinutes(maxAgeMinutes))) {
+                log.info("Rank index snapshot from {} is too old, reading the whole table", snapshot.getCapturedAt());
+                return null;
+            }
+            return snapshot;
+        } catch (IOException e) {
+            log.warn("Could not read rank index snapshot {}, reading the whole table: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private void markTouched(String playerId) {
+        if (touchedDuringWarm != null) {
+            touchedDuringWarm.add(playerId);
+        }
+    }
+}
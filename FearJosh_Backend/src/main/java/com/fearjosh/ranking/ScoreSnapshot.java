@@ -0,0 +1,18 @@
+package com.fearjosh.ranking;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The rank index contents at one point in time, entries in global leaderboard order.
+ */
+@Value
+@AllArgsConstructor
+public class ScoreSnapshot {
+
+    LocalDateTime capturedAt;
+    List<ScoreEntry> entries;
+}
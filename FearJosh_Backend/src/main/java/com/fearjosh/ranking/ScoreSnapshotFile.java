@@ -0,0 +1,162 @@
+package com.fearjosh.ranking;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary file format of a {@link ScoreSnapshot}. Big-endian:
+ * <pre>
+ * int magic, int version, long capturedAt (epoch micros, UTC)
+ * short difficulty count, then each difficulty as a string
+ * int entry count, then per entry:
+ *     long id, long completionTimeSeconds, long completedAt (epoch micros, UTC; Long.MIN_VALUE for null),
+ *     short difficulty index, string playerId, string username
+ * long CRC32 of everything before it
+ * </pre>
+ * Strings are an unsigned short byte length followed by UTF-8. Files are written to a sibling
+ * temp file and moved into place atomically, and read through a memory mapping, so a load is one
+ * sequential pass with no read syscalls and a crash mid-write never leaves a partial snapshot.
+ */
+public final class ScoreSnapshotFile {
+
+    private static final int MAGIC = 0x464A5358;
+    private static final int VERSION = 1;
+    private static final long NULL_TIME = Long.MIN_VALUE;
+    private static final int MIN_SIZE = 4 + 4 + 8 + 2 + 4 + 8;
+
+    private ScoreSnapshotFile() {
+    }
+
+    public static void write(Path path, ScoreSnapshot snapshot) throws IOException {
+        Path target = path.toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        Map<String, Integer> difficulties = new HashMap<>();
+        List<String> difficultyNames = new ArrayList<>();
+        for (ScoreEntry entry : snapshot.getEntries()) {
+            if (difficulties.putIfAbsent(entry.getDifficulty(), difficultyNames.size()) == null) {
+                difficultyNames.add(entry.getDifficulty());
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(channel), crc), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(toMicros(snapshot.getCapturedAt()));
+            out.writeShort(difficultyNames.size());
+            for (String difficulty : difficultyNames) {
+                writeString(out, difficulty);
+            }
+            out.writeInt(snapshot.getEntries().size());
+            for (ScoreEntry entry : snapshot.getEntries()) {
+                out.writeLong(entry.getId());
+                out.writeLong(entry.getCompletionTimeSeconds());
+                out.writeLong(entry.getCompletedAt() != null ? toMicros(entry.getCompletedAt()) : NULL_TIME);
+                out.writeShort(difficulties.get(entry.getDifficulty()));
+                writeString(out, entry.getPlayerId());
+                writeString(out, entry.getUsername());
+            }
+            out.flush();
+            ByteBuffer checksum = ByteBuffer.allocate(Long.BYTES).putLong(0, crc.getValue());
+            while (checksum.hasRemaining()) {
+                channel.write(checksum);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public static ScoreSnapshot read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MIN_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Unexpected snapshot size " + size + " bytes");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int bodySize = (int) size - Long.BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, bodySize));
+            if (crc.getValue() != buffer.getLong(bodySize)) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+            buffer.limit(bodySize);
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a version " + VERSION + " score snapshot");
+            }
+            LocalDateTime capturedAt = fromMicros(buffer.getLong());
+            // Strings are decoded from one reused array rather than a fresh copy each
+            byte[] scratch = new byte[0xFFFF];
+            String[] difficulties = new String[Short.toUnsignedInt(buffer.getShort())];
+            for (int i = 0; i < difficulties.length; i++) {
+                difficulties[i] = readString(buffer, scratch);
+            }
+            int count = buffer.getInt();
+            List<ScoreEntry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long id = buffer.getLong();
+                long seconds = buffer.getLong();
+                long completedAt = buffer.getLong();
+                String difficulty = difficulties[Short.toUnsignedInt(buffer.getShort())];
+                String playerId = readString(buffer, scratch);
+                String username = readString(buffer, scratch);
+                entries.add(new ScoreEntry(id, playerId, username, difficulty, seconds,
+                        completedAt != NULL_TIME ? fromMicros(completedAt) : null));
+            }
+            if (buffer.hasRemaining()) {
+                throw new IOException("Unexpected data after " + count + " snapshot entries");
+            }
+            return new ScoreSnapshot(capturedAt, entries);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated score snapshot", e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("String of " + bytes.length + " bytes does not fit a score snapshot");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer, byte[] scratch) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        buffer.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,288 @@
+package com.fearjosh.ranking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Case-insensitive substring search over usernames, backed by an inverted index of every trigram
+ * and bigram of each name plus its first character. Queries of three or more characters intersect
+ * trigram postings; two-character queries read their bigram's postings, so they still match any
+ * substring as the LIKE fallback does; one-character queries match name prefixes only, as a
+ * substring of one letter would select most of the table. Fed by the rank index events, so it
+ * follows committed changes without touching the database.
+ */
+@Slf4j
+@Component
+public class UsernameSearchIndex {
+
+    private static final int GRAM = 3;
+    // Key prefix of the first-character postings; normalized names never contain it
+    private static final char PREFIX_MARK = '\0';
+    private static final int MIN_DEAD_FOR_COMPACTION = 1024;
+    // Removed slots stay in the postings until compaction, so keep them to a quarter of the live ones
+    private static final int MAX_DEAD_PER_LIVE = 4;
+
+    // Exact matches first, then prefix matches, then other substrings; faster runs first within each
+    private static final Comparator<Match> RANKING = Comparator
+            .comparingInt((Match m) -> m.tier)
+            .thenComparingLong(m -> m.entry.getCompletionTimeSeconds())
+            .thenComparing(m -> m.entry.getUsername())
+            .thenComparingLong(m -> m.entry.getId());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<String, Integer> slotByPlayerId = new HashMap<>();
+
+    // Slots are never reused; removed players leave a null slot until the next compaction
+    private ScoreEntry[] entries = new ScoreEntry[1024];
+    private String[] names = new String[1024];
+    private int nextSlot;
+    private int dead;
+
+    // Players changed before the warm-up entries arrived; their live state wins
+    private Set<String> touchedBeforeWarm = new HashSet<>();
+    private volatile boolean ready;
+
+    @EventListener
+    public void onIndexWarmed(ScoreIndexWarmedEvent event) {
+        int nameCount;
+        int gramCount;
+        lock.writeLock().lock();
+        try {
+            Set<String> touched = touchedBeforeWarm != null ? touchedBeforeWarm : Set.of();
+            for (ScoreEntry entry : event.getEntries()) {
+                if (!touched.contains(entry.getPlayerId())) {
+                    put(entry);
+                }
+            }
+            touchedBeforeWarm = null;
+            ready = true;
+            nameCount = slotByPlayerId.size();
+            gramCount = postings.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Username search index built with {} names and {} grams", nameCount, gramCount);
+    }
+
+    @EventListener
+    public void onScoreChanged(ScoreChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            ScoreEntry changed = event.getCurrent() != null ? event.getCurrent() : event.getPrevious();
+            if (touchedBeforeWarm != null) {
+                touchedBeforeWarm.add(changed.getPlayerId());
+            }
+            if (event.getCurrent() != null) {
+                put(event.getCurrent());
+            } else {
+                delete(changed.getPlayerId());
+            }
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Up to {@code limit} entries whose username contains {@code query}, ignoring case.
+     */
+    public List<ScoreEntry> search(String query, int limit) {
+        String needle = normalize(query);
+        if (needle.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        lock.readLock().lock();
+        try {
+            if (needle.length() < GRAM) {
+                Postings list = postings.get(needle.length() == 1 ? PREFIX_MARK + needle : needle);
+                for (int i = 0; list != null && i < list.size; i++) {
+                    offer(best, list.slots[i], needle, limit);
+                }
+                return ranked(best);
+            }
+
+            List<Postings> lists = new ArrayList<>();
+            for (String gram : grams(needle)) {
+                Postings list = postings.get(gram);
+                if (list == null) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            Postings smallest = lists.get(0);
+            for (int i = 0; i < smallest.size; i++) {
+                int slot = smallest.slots[i];
+                if (containsAll(lists, slot)) {
+                    offer(best, slot, needle, limit);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ranked(best);
+    }
+
+    // Trigrams can all be present without being contiguous, so the name itself decides
+    private void offer(PriorityQueue<Match> best, int slot, String needle, int limit) {
+        ScoreEntry entry = entries[slot];
+        if (entry == null) {
+            return;
+        }
+        String name = names[slot];
+        if (!name.contains(needle)) {
+            return;
+        }
+        int tier = name.equals(needle) ? 0 : name.startsWith(needle) ? 1 : 2;
+        best.offer(new Match(entry, tier));
+        if (best.size() > limit) {
+            best.poll();
+        }
+    }
+
+    private static List<ScoreEntry> ranked(PriorityQueue<Match> best) {
+        List<Match> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+        List<ScoreEntry> result = new ArrayList<>(ranked.size());
+        ranked.forEach(match -> result.add(match.entry));
+        return result;
+    }
+
+    private void put(ScoreEntry entry) {
+        String name = normalize(entry.getUsername());
+        Integer slot = slotByPlayerId.get(entry.getPlayerId());
+        if (slot != null && names[slot].equals(name)) {
+            entries[slot] = entry;
+            return;
+        }
+        if (slot != null) {
+            release(slot);
+        }
+
+        if (nextSlot == entries.length) {
+            entries = Arrays.copyOf(entries, entries.length * 2);
+            names = Arrays.copyOf(names, names.length * 2);
+        }
+        int newSlot = nextSlot++;
+        entries[newSlot] = entry;
+        names[newSlot] = name;
+        slotByPlayerId.put(entry.getPlayerId(), newSlot);
+        for (String key : keys(name)) {
+            postings.computeIfAbsent(key, k -> new Postings()).add(newSlot);
+        }
+    }
+
+    private void delete(String playerId) {
+        Integer slot = slotByPlayerId.remove(playerId);
+        if (slot != null) {
+            release(slot);
+        }
+    }
+
+    private void release(int slot) {
+        entries[slot] = null;
+        names[slot] = null;
+        dead++;
+    }
+
+    private void compactIfSparse() {
+        if (dead < MIN_DEAD_FOR_COMPACTION || dead * MAX_DEAD_PER_LIVE < slotByPlayerId.size()) {
+            return;
+        }
+        ScoreEntry[] live = Arrays.copyOf(entries, nextSlot);
+        postings.clear();
+        slotByPlayerId.clear();
+        entries = new ScoreEntry[Math.max(1024, live.length - dead)];
+        names = new String[entries.length];
+        nextSlot = 0;
+        dead = 0;
+        for (ScoreEntry entry : live) {
+            if (entry != null) {
+                put(entry);
+            }
+        }
+    }
+
+    private static boolean containsAll(List<Postings> lists, int slot) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(slot)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    // Trigrams, bigrams and the marked first character of a name
+    private static Set<String> keys(String name) {
+        Set<String> keys = grams(name);
+        for (int i = 0; i + 2 <= name.length(); i++) {
+            keys.add(name.substring(i, i + 2));
+        }
+        if (!name.isEmpty()) {
+            keys.add(PREFIX_MARK + name.substring(0, 1));
+        }
+        return keys;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Match {
+        final ScoreEntry entry;
+        final int tier;
+
+        Match(ScoreEntry entry, int tier) {
+            this.entry = entry;
+            this.tier = tier;
+        }
+    }
+
+    // Slot ids in ascending order, since slots are only ever appended
+    private static final class Postings {
+        int[] slots = new int[4];
+        int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        boolean contains(int slot) {
+            return Arrays.binarySearch(slots, 0, size, slot) >= 0;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.fearjosh.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the per-IP bucket to every request and the per-player bucket when the player is
+ * known from the X-Player-Id header or a {playerId} path segment. Endpoints that scan many rows
+ * cost more tokens. Rejections are answered here with a fixed body, before any controller or
+ * database work.
+ *
+ * Neither the header nor the path is authenticated, so the player bucket is kept per address:
+ * it caps how hard one client hits one player, and nobody can use up another client's bucket
+ * by naming its player. It does not cap a player across addresses, and POST /scores is only
+ * player-limited when the client sends the header, as the body is not read here.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public static final String PLAYER_ID_HEADER = "X-Player-Id";
+
+    private static final byte[] REJECTED_BODY =
+            "{\"success\":false,\"message\":\"Too many requests, please slow down\",\"data\":null}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private static final Set<String> EXPENSIVE_PATHS = Set.of(
+            "/scores/search", "/scores/all", "/scores/all/page", "/scores/export", "/users");
+
+    private static final List<PathPattern> PLAYER_PATHS = List.of(
+            PathPatternParser.defaultInstance.parse("/scores/rank/{playerId}/**"),
+            PathPatternParser.defaultInstance.parse("/scores/player/{playerId}/**"),
+            PathPatternParser.defaultInstance.parse("/scores/stats/player/{playerId}"),
+            PathPatternParser.defaultInstance.parse("/scores/exists/{playerId}"));
+
+    private final RateLimiter rateLimiter;
+    private final int expensiveCost;
+
+    public RateLimitFilter(RateLimiter rateLimiter, int expensiveCost) {
+        this.rateLimiter = rateLimiter;
+        this.expensiveCost = expensiveCost;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimiter.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        int permits = EXPENSIVE_PATHS.contains(path) && "GET".equals(request.getMethod()) ? expensiveCost : 1;
+
+        long wait = rateLimiter.tryAcquire(RateLimiter.Scope.IP, request.getRemoteAddr(), permits);
+        if (wait == 0) {
+            String playerId = playerId(request, path);
+            if (playerId != null) {
+                wait = rateLimiter.tryAcquire(RateLimiter.Scope.PLAYER, request.getRemoteAddr() + "|" + playerId, permits);
+            }
+        }
+        if (wait > 0) {
+            reject(response, wait);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private static String playerId(HttpServletRequest request, String path) {
+        String header = request.getHeader(PLAYER_ID_HEADER);
+        if (header != null && !header.isBlank()) {
+            return header;
+        }
+        PathContainer container = PathContainer.parsePath(path);
+        for (PathPattern pattern : PLAYER_PATHS) {
+            PathPattern.PathMatchInfo match = pattern.matchAndExtract(container);
+            if (match != null) {
+                return match.getUriVariables().get("playerId");
+            }
+        }
+        return null;
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1))));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(REJECTED_BODY.length);
+        response.getOutputStream().write(REJECTED_BODY);
+    }
+}
@@ -0,0 +1,17 @@
+package com.fearjosh.ratelimit;
+
+import lombok.Value;
+
+import java.util.concurrent.TimeUnit;
+
+@Value
+public class RateLimitPolicy {
+    long emissionIntervalNanos;
+    long capacityNanos;
+
+    // Refills permitsPerSecond tokens per second and holds at most burst
+    public static RateLimitPolicy of(double permitsPerSecond, int burst) {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        return new RateLimitPolicy(interval, interval * burst);
+    }
+}
@@ -0,0 +1,92 @@
+package com.fearjosh.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token buckets per client IP and per player. Buckets are created on first use and dropped
+ * once they have refilled; when max-keys distinct clients are active at once, new ones share
+ * one overflow bucket per scope instead of growing the map.
+ */
+@Component
+public class RateLimiter {
+
+    public enum Scope {
+        IP, PLAYER
+    }
+
+    private final boolean enabled;
+    private final int maxKeys;
+    private final Map<Scope, RateLimitPolicy> policies;
+    private final Map<Scope, TokenBucket> overflow;
+    private final Map<Scope, Counter> rejected;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RateLimiter(MeterRegistry registry,
+                       @Value("${fearjosh.ratelimit.enabled:true}") boolean enabled,
+                       @Value("${fearjosh.ratelimit.max-keys:100000}") int maxKeys,
+                       @Value("${fearjosh.ratelimit.ip.permits-per-second:20}") double ipRate,
+                       @Value("${fearjosh.ratelimit.ip.burst:40}") int ipBurst,
+                       @Value("${fearjosh.ratelimit.player.permits-per-second:5}") double playerRate,
+                       @Value("${fearjosh.ratelimit.player.burst:10}") int playerBurst) {
+        this.enabled = enabled;
+        this.maxKeys = maxKeys;
+        this.policies = Map.of(
+                Scope.IP, RateLimitPolicy.of(ipRate, ipBurst),
+                Scope.PLAYER, RateLimitPolicy.of(playerRate, playerBurst));
+        long now = System.nanoTime();
+        this.overflow = Map.of(Scope.IP, new TokenBucket(now), Scope.PLAYER, new TokenBucket(now));
+        this.rejected = Map.of(
+                Scope.IP, rejectedCounter(registry, Scope.IP),
+                Scope.PLAYER, rejectedCounter(registry, Scope.PLAYER));
+        Gauge.builder("fearjosh.ratelimit.buckets", buckets, Map::size)
+                .description("Rate limit buckets currently held")
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes {@code permits} tokens from the client's bucket. Returns 0 when allowed, otherwise
+     * the nanoseconds until the request would be.
+     */
+    public long tryAcquire(Scope scope, String client, int permits) {
+        long now = System.nanoTime();
+        String key = scope.name() + ':' + client;
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.size() < maxKeys
+                    ? buckets.computeIfAbsent(key, k -> new TokenBucket(now))
+                    : overflow.get(scope);
+        }
+        long wait = bucket.tryAcquire(policies.get(scope), permits, now);
+        if (wait > 0) {
+            rejected.get(scope).increment();
+        }
+        return wait;
+    }
+
+    @Scheduled(fixedDelayString = "${fearjosh.ratelimit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    private static Counter rejectedCounter(MeterRegistry registry, Scope scope) {
+        return Counter.builder("fearjosh.ratelimit.rejected")
+                .description("Requests rejected by the rate limiter")
+                .tag("scope", scope.name().toLowerCase())
+                .register(registry);
+    }
+}
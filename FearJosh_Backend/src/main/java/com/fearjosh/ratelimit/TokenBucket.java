@@ -0,0 +1,42 @@
+package com.fearjosh.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket kept as a single timestamp (the generic cell rate algorithm): the
+ * bucket is full when the theoretical arrival time is in the past, and every permit pushes it
+ * one emission interval further. Acquiring is one compare-and-set; rates live in the shared
+ * {@link RateLimitPolicy} so a bucket costs one AtomicLong.
+ */
+public final class TokenBucket {
+
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(long nowNanos) {
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes {@code permits} tokens if available. Returns 0 on success, otherwise the nanoseconds
+     * until they would be; a rejection takes nothing.
+     */
+    public long tryAcquire(RateLimitPolicy policy, int permits, long nowNanos) {
+        long increment = policy.getEmissionIntervalNanos() * permits;
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = (current - nowNanos > 0 ? current : nowNanos) + increment;
+            long wait = next - nowNanos - policy.getCapacityNanos();
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // A full bucket behaves exactly like a new one, so it can be dropped
+    public boolean isFull(long nowNanos) {
+        return theoreticalArrival.get() - nowNanos <= 0;
+    }
+}
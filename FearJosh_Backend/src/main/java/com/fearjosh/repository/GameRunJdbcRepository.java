@@ -0,0 +1,131 @@
+package com.fearjosh.repository;
+
+import com.fearjosh.model.GameScore;
+import com.fearjosh.ranking.ScoreEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Append-only access to game_runs. On PostgreSQL the table is range-partitioned by month and
+ * retention drops whole partitions; on other databases it is one table and retention deletes rows.
+ */
+@Repository
+public class GameRunJdbcRepository {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'y'uuuu'm'MM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("game_runs_y(\\d{4})m(\\d{2})");
+
+    private static final String INSERT_RUN =
+            "INSERT INTO game_runs (player_id, username, difficulty, completion_time_seconds, completed_at)"
+            + " VALUES (?, ?, ?, ?, ?)";
+
+    private static final RowMapper<ScoreEntry> ROW_MAPPER = (rs, rowNum) -> new ScoreEntry(
+            rs.getLong("id"),
+            rs.getString("player_id"),
+            rs.getString("username"),
+            rs.getString("difficulty"),
+            rs.getLong("completion_time_seconds"),
+            rs.getObject("completed_at", LocalDateTime.class)
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseProduct databaseProduct;
+
+    @Autowired
+    public GameRunJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseProduct = new DatabaseProduct(jdbcTemplate);
+    }
+
+    public void appendBatch(List<GameScore> runs, LocalDateTime completedAt) {
+        if (runs.isEmpty()) {
+            return;
+        }
+        Timestamp timestamp = Timestamp.valueOf(completedAt);
+        jdbcTemplate.batchUpdate(INSERT_RUN, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                GameScore run = runs.get(i);
+                ps.setString(1, run.getPlayerId());
+                ps.setString(2, run.getUsername());
+                ps.setString(3, run.getDifficulty());
+                ps.setLong(4, run.getCompletionTimeSeconds());
+                ps.setTimestamp(5, timestamp);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return runs.size();
+            }
+        });
+    }
+
+    // Most recent first
+    public List<ScoreEntry> findByPlayerId(String playerId, int limit) {
+        return jdbcTemplate.query("SELECT id, player_id, username, difficulty, completion_time_seconds, completed_at"
+                        + " FROM game_runs WHERE player_id = ? ORDER BY completed_at DESC, id DESC"
+                        + " FETCH FIRST " + limit + " ROWS ONLY",
+                ROW_MAPPER, playerId);
+    }
+
+    public long countByPlayerId(String playerId) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM game_runs WHERE player_id = ?",
+                Long.class, playerId);
+        return count == null ? 0 : count;
+    }
+
+    public boolean isPartitioned() {
+        return databaseProduct.isPostgres();
+    }
+
+    // No-op when the table is not partitioned
+    public void createPartition(YearMonth month) {
+        if (!isPartitioned()) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month)
+                + " PARTITION OF game_runs FOR VALUES FROM ('" + month.atDay(1) + "') TO ('"
+                + month.plusMonths(1).atDay(1) + "')");
+    }
+
+    /**
+     * Removes every run older than the start of {@code month}: monthly partitions that end on
+     * or before it are dropped, anything left in the default partition is deleted.
+     * Returns the number of partitions dropped plus rows deleted.
+     */
+    public int deleteBefore(YearMonth month) {
+        int removed = 0;
+        if (isPartitioned()) {
+            List<String> partitions = jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i"
+                    + " JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent"
+                    + " WHERE p.relname = 'game_runs'", String.class);
+            for (String partition : partitions) {
+                Matcher matcher = PARTITION_NAME.matcher(partition);
+                if (matcher.matches()
+                        && YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))).isBefore(month)) {
+                    jdbcTemplate.execute("DROP TABLE " + partition);
+                    removed++;
+                }
+            }
+        }
+        return removed + jdbcTemplate.update("DELETE FROM game_runs WHERE completed_at < ?",
+                Timestamp.valueOf(month.atDay(1).atStartOfDay()));
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "game_runs_" + PARTITION_SUFFIX.format(month);
+    }
+}
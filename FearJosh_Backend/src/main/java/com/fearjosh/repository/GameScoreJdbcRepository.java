@@ -0,0 +1,284 @@
+package com.fearjosh.repository;
+
+import com.fearjosh.model.GameScore;
+import com.fearjosh.transaction.AfterCommit;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC access to game_scores for the paths where JPA costs extra round trips or heap.
+ *
+ * The conditional "insert, or replace only if the time is better or the difficulty changed" is one
+ * INSERT ... ON CONFLICT statement on PostgreSQL that also returns the winning row; other databases
+ * (H2 in tests) use a standard MERGE followed by a lookup.
+ *
+ * Hibernate does not see these writes, so changed rows are evicted from the GameScore
+ * second-level cache region here. Every write stamps updated_at, and deletions are recorded in
+ * game_score_deletions, so a rank index snapshot can be brought up to date from the changes alone.
+ */
+@Repository
+public class GameScoreJdbcRepository {
+
+    private static final String COLUMNS =
+            "id, player_id, username, difficulty, completion_time_seconds, completion_time_formatted, completed_at";
+
+    private static final String POSTGRES_INSERT_ON_CONFLICT =
+            "INSERT INTO game_scores (player_id, username, difficulty, completion_time_seconds, completion_time_formatted,"
+            + " completed_at, updated_at)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?)"
+            + " ON CONFLICT (player_id) DO UPDATE SET"
+            + " username = EXCLUDED.username,"
+            + " difficulty = EXCLUDED.difficulty,"
+            + " completion_time_seconds = EXCLUDED.completion_time_seconds,"
+            + " completion_time_formatted = EXCLUDED.completion_time_formatted,"
+            + " updated_at = EXCLUDED.updated_at"
+            + " WHERE game_scores.difficulty <> EXCLUDED.difficulty"
+            + " OR EXCLUDED.completion_time_seconds < game_scores.completion_time_seconds";
+
+    private static final String POSTGRES_UPSERT =
+            "WITH upserted AS (" + POSTGRES_INSERT_ON_CONFLICT
+            + " RETURNING " + COLUMNS + ")"
+            + " SELECT " + COLUMNS + ", TRUE AS changed FROM upserted"
+            + " UNION ALL"
+            + " SELECT " + COLUMNS + ", FALSE AS changed FROM game_scores"
+            + " WHERE player_id = ? AND NOT EXISTS (SELECT 1 FROM upserted)";
+
+    private static final String MERGE_UPSERT =
+            "MERGE INTO game_scores t"
+            + " USING (SELECT CAST(? AS VARCHAR(255)) AS player_id, CAST(? AS VARCHAR(255)) AS username,"
+            + " CAST(? AS VARCHAR(255)) AS difficulty, CAST(? AS BIGINT) AS completion_time_seconds,"
+            + " CAST(? AS VARCHAR(255)) AS completion_time_formatted, CAST(? AS TIMESTAMP) AS completed_at,"
+            + " CAST(? AS TIMESTAMP) AS updated_at) s"
+            + " ON t.player_id = s.player_id"
+            + " WHEN MATCHED AND (t.difficulty <> s.difficulty OR s.completion_time_seconds < t.completion_time_seconds) THEN"
+            + " UPDATE SET username = s.username, difficulty = s.difficulty,"
+            + " completion_time_seconds = s.completion_time_seconds,"
+            + " completion_time_formatted = s.completion_time_formatted, updated_at = s.updated_at"
+            + " WHEN NOT MATCHED THEN"
+            + " INSERT (player_id, username, difficulty, completion_time_seconds, completion_time_formatted, completed_at, updated_at)"
+            + " VALUES (s.player_id, s.username, s.difficulty, s.completion_time_seconds, s.completion_time_formatted,"
+            + " s.completed_at, s.updated_at)";
+
+    private static final String POSTGRES_RECORD_DELETION =
+            "INSERT INTO game_score_deletions (player_id, deleted_at) VALUES (?, ?)"
+            + " ON CONFLICT (player_id) DO UPDATE SET deleted_at = EXCLUDED.deleted_at";
+
+    private static final String MERGE_RECORD_DELETION =
+            "MERGE INTO game_score_deletions t"
+            + " USING (SELECT CAST(? AS VARCHAR(255)) AS player_id, CAST(? AS TIMESTAMP) AS deleted_at) s"
+            + " ON t.player_id = s.player_id"
+            + " WHEN MATCHED THEN UPDATE SET deleted_at = s.deleted_at"
+            + " WHEN NOT MATCHED THEN INSERT (player_id, deleted_at) VALUES (s.player_id, s.deleted_at)";
+
+    private static final String SELECT_BY_PLAYER =
+            "SELECT " + COLUMNS + " FROM game_scores WHERE player_id = ?";
+
+    private static final RowMapper<GameScore> ROW_MAPPER = (rs, rowNum) -> new GameScore(
+            rs.getLong("id"),
+            rs.getString("player_id"),
+            rs.getString("username"),
+            rs.getString("difficulty"),
+            rs.getLong("completion_time_seconds"),
+            rs.getString("completion_time_formatted"),
+            rs.getObject("completed_at", LocalDateTime.class)
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    // Null for shard databases, which are not mapped by JPA
+    private final EntityManagerFactory entityManagerFactory;
+    private final DatabaseProduct databaseProduct;
+
+    @Autowired
+    public GameScoreJdbcRepository(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseProduct = new DatabaseProduct(jdbcTemplate);
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public ScoreUpsertResult upsertBest(GameScore candidate) {
+        Timestamp completedAt = Timestamp.valueOf(LocalDateTime.now());
+        if (databaseProduct.isPostgres()) {
+            List<ScoreUpsertResult> rows = jdbcTemplate.query(POSTGRES_UPSERT,
+                    (rs, rowNum) -> new ScoreUpsertResult(ROW_MAPPER.mapRow(rs, rowNum), rs.getBoolean("changed")),
+                    candidate.getPlayerId(), candidate.getUsername(), candidate.getDifficulty(),
+                    candidate.getCompletionTimeSeconds(), candidate.getCompletionTimeFormatted(), completedAt,
+                    completedAt, candidate.getPlayerId());
+            if (!rows.isEmpty()) {
+                if (rows.get(0).isChanged()) {
+                    evictCached(List.of(rows.get(0).getScore()));
+                }
+                return rows.get(0);
+            }
+            // The conflicting row was committed after our statement snapshot; read it now
+            return new ScoreUpsertResult(findByPlayerId(candidate.getPlayerId()), false);
+        }
+
+        int updated = jdbcTemplate.update(MERGE_UPSERT,
+                candidate.getPlayerId(), candidate.getUsername(), candidate.getDifficulty(),
+                candidate.getCompletionTimeSeconds(), candidate.getCompletionTimeFormatted(), completedAt, completedAt);
+        ScoreUpsertResult result = new ScoreUpsertResult(findByPlayerId(candidate.getPlayerId()), updated > 0);
+        if (result.isChanged()) {
+            evictCached(List.of(result.getScore()));
+        }
+        return result;
+    }
+
+    /**
+     * Applies the same conditional upsert to every candidate as one JDBC batch and returns the
+     * current rows of the players whose score changed. Candidates must have distinct player ids.
+     */
+    public List<GameScore> upsertBestBatch(List<GameScore> candidates) {
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        Timestamp completedAt = Timestamp.valueOf(LocalDateTime.now());
+        int[] counts = jdbcTemplate.batchUpdate(databaseProduct.isPostgres() ? POSTGRES_INSERT_ON_CONFLICT : MERGE_UPSERT,
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        GameScore candidate = candidates.get(i);
+                        ps.setString(1, candidate.getPlayerId());
+                        ps.setString(2, candidate.getUsername());
+                        ps.setString(3, candidate.getDifficulty());
+                        ps.setLong(4, candidate.getCompletionTimeSeconds());
+                        ps.setString(5, candidate.getCompletionTimeFormatted());
+                        ps.setTimestamp(6, completedAt);
+                        ps.setTimestamp(7, completedAt);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return candidates.size();
+                    }
+                });
+
+        List<String> changedPlayerIds = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            // SUCCESS_NO_INFO means the driver cannot tell; treat it as changed
+            if (counts[i] != 0) {
+                changedPlayerIds.add(candidates.get(i).getPlayerId());
+            }
+        }
+        List<GameScore> changed = findByPlayerIds(changedPlayerIds);
+        evictCached(changed);
+        return changed;
+    }
+
+    public List<GameScore> findByPlayerIds(List<String> playerIds) {
+        if (playerIds.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(playerIds.size(), "?"));
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM game_scores WHERE player_id IN (" + placeholders + ")",
+                ROW_MAPPER, playerIds.toArray());
+    }
+
+    // Locks the rows in player id order, so concurrent bulk submissions cannot deadlock on them
+    public List<GameScore> findByPlayerIdsForUpdate(List<String> playerIds) {
+        if (playerIds.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(playerIds.size(), "?"));
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM game_scores WHERE player_id IN (" + placeholders + ")"
+                + " ORDER BY player_id FOR UPDATE", ROW_MAPPER, playerIds.toArray());
+    }
+
+    /**
+     * Streams scores in leaderboard order from a forward-only cursor, so memory stays flat
+     * regardless of table size. Must run inside a transaction for PostgreSQL to honour the fetch size.
+     */
+    public void streamOrdered(String difficulty, int fetchSize, Consumer<GameScore> consumer) {
+        String sql = "SELECT " + COLUMNS + " FROM game_scores"
+                + (difficulty != null ? " WHERE difficulty = ?" : "")
+                + " ORDER BY completion_time_seconds ASC, id ASC";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            if (difficulty != null) {
+                ps.setString(1, difficulty);
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(ROW_MAPPER.mapRow(rs, 0)));
+    }
+
+    // Best rows in (completion time, player id) order, a total order that is comparable across databases
+    public List<GameScore> findTop(String difficulty, int limit) {
+        String where = difficulty != null ? " WHERE difficulty = ?" : "";
+        Object[] args = difficulty != null ? new Object[]{difficulty} : new Object[0];
+        // Ties broken by id, which the ranking indexes cover and which compares the same in Java;
+        // player_id would follow the database collation
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM game_scores" + where
+                + " ORDER BY completion_time_seconds, id FETCH FIRST " + limit + " ROWS ONLY", ROW_MAPPER, args);
+    }
+
+    public long count(String difficulty) {
+        Long count = difficulty != null
+                ? jdbcTemplate.queryForObject("SELECT COUNT(*) FROM game_scores WHERE difficulty = ?", Long.class, difficulty)
+                : jdbcTemplate.queryForObject("SELECT COUNT(*) FROM game_scores", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    public long countFaster(String difficulty, long completionTimeSeconds) {
+        Long count = difficulty != null
+                ? jdbcTemplate.queryForObject("SELECT COUNT(*) FROM game_scores WHERE difficulty = ?"
+                + " AND completion_time_seconds < ?", Long.class, difficulty, completionTimeSeconds)
+                : jdbcTemplate.queryForObject("SELECT COUNT(*) FROM game_scores WHERE completion_time_seconds < ?",
+                Long.class, completionTimeSeconds);
+        return count == null ? 0 : count;
+    }
+
+    public boolean deleteByPlayerId(String playerId) {
+        return jdbcTemplate.update("DELETE FROM game_scores WHERE player_id = ?", playerId) > 0;
+    }
+
+    // Rows inserted or changed at or after the given time, for replaying onto a rank index snapshot
+    public List<GameScore> findUpdatedSince(LocalDateTime since) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM game_scores WHERE updated_at >= ?",
+                ROW_MAPPER, Timestamp.valueOf(since));
+    }
+
+    public void recordDeletion(String playerId) {
+        jdbcTemplate.update(databaseProduct.isPostgres() ? POSTGRES_RECORD_DELETION : MERGE_RECORD_DELETION,
+                playerId, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    public List<String> findDeletedSince(LocalDateTime since) {
+        return jdbcTemplate.queryForList("SELECT player_id FROM game_score_deletions WHERE deleted_at >= ?",
+                String.class, Timestamp.valueOf(since));
+    }
+
+    public int purgeDeletionsBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM game_score_deletions WHERE deleted_at < ?", Timestamp.valueOf(cutoff));
+    }
+
+    private GameScore findByPlayerId(String playerId) {
+        return jdbcTemplate.queryForObject(SELECT_BY_PLAYER, ROW_MAPPER, playerId);
+    }
+
+    // Evicted now for the rest of this transaction and again after commit, in case another
+    // transaction reloaded the old row in between
+    private void evictCached(List<GameScore> scores) {
+        if (scores.isEmpty() || entityManagerFactory == null) {
+            return;
+        }
+        Runnable evict = () -> scores.forEach(score ->
+                entityManagerFactory.getCache().evict(GameScore.class, score.getId()));
+        evict.run();
+        AfterCommit.run(evict);
+    }
+}
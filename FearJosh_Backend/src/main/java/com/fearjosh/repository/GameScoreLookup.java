@@ -0,0 +1,10 @@
+package com.fearjosh.repository;
+
+import com.fearjosh.model.GameScore;
+
+import java.util.Optional;
+
+public interface GameScoreLookup {
+
+    Optional<GameScore> findByPlayerId(String playerId);
+}
@@ -0,0 +1,26 @@
+package com.fearjosh.repository;
+
+import com.fearjosh.model.GameScore;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Loads players by natural id rather than a derived query, so a repeated lookup is answered from
+ * the natural-id and entity cache regions. Unlike the query cache this stays correct across the
+ * JDBC upserts: they never change a row's id or player_id, and evict the entity they update.
+ */
+@Transactional(readOnly = true)
+public class GameScoreLookupImpl implements GameScoreLookup {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<GameScore> findByPlayerId(String playerId) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(GameScore.class).loadOptional(playerId);
+    }
+}
@@ -1,6 +1,7 @@
 package com.fearjosh.repository;
 
 import com.fearjosh.model.GameScore;
+import com.fearjosh.ranking.ScoreEntry;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -8,25 +9,23 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
-import java.util.Optional;
 
 @Repository
-public interface GameScoreRepository extends JpaRepository<GameScore, Long> {
+public interface GameScoreRepository extends JpaRepository<GameScore, Long>, GameScoreLookup {
 
-    Optional<GameScore> findByPlayerId(String playerId);
+    // Ties on time go to the earlier row, as in the keyset pages and the ranking indexes
+    List<GameScore> findByDifficultyOrderByCompletionTimeSecondsAscIdAsc(String difficulty);
 
-    boolean existsByPlayerId(String playerId);
+    List<GameScore> findByDifficultyOrderByCompletionTimeSecondsAscIdAsc(String difficulty, Pageable pageable);
 
-    List<GameScore> findByDifficultyOrderByCompletionTimeSecondsAsc(String difficulty);
+    List<GameScore> findAllByOrderByCompletionTimeSecondsAscIdAsc();
 
-    List<GameScore> findByDifficultyOrderByCompletionTimeSecondsAsc(String difficulty, Pageable pageable);
-
-    List<GameScore> findAllByOrderByCompletionTimeSecondsAsc();
-
-    List<GameScore> findAllByOrderByCompletionTimeSecondsAsc(Pageable pageable);
+    List<GameScore> findAllByOrderByCompletionTimeSecondsAscIdAsc(Pageable pageable);
 
     long countByDifficulty(String difficulty);
 
+    long countByDifficultyAndCompletionTimeSecondsGreaterThan(String difficulty, Long completionTimeSeconds);
+
     @Query("SELECT COUNT(g) + 1 FROM GameScore g WHERE g.difficulty = :difficulty AND g.completionTimeSeconds < :time")
     int getPlayerRank(@Param("difficulty") String difficulty, @Param("time") Long completionTimeSeconds);
 
@@ -35,6 +34,49 @@ public interface GameScoreRepository extends JpaRepository<GameScore, Long> {
 
     List<GameScore> findByUsernameContainingIgnoreCase(String username);
 
+    List<GameScore> findByUsernameStartingWithIgnoreCase(String username);
+
     @Query("SELECT g FROM GameScore g WHERE g.playerId = :playerId ORDER BY g.completionTimeSeconds ASC")
     List<GameScore> findBestScoresByPlayerId(@Param("playerId") String playerId);
+
+    @Query("SELECT new com.fearjosh.ranking.ScoreEntry(g.id, g.playerId, g.username, g.difficulty, g.completionTimeSeconds, g.completedAt) FROM GameScore g")
+    List<ScoreEntry> findAllScoreEntries();
+
+    // Keyset pages on (completion_time_seconds, id); pass the last row of the previous page
+    @Query("SELECT g FROM GameScore g WHERE g.completionTimeSeconds > :time"
+            + " OR (g.completionTimeSeconds = :time AND g.id > :id)"
+            + " ORDER BY g.completionTimeSeconds ASC, g.id ASC")
+    List<GameScore> findPageAfter(@Param("time") long completionTimeSeconds, @Param("id") long id,
+                                  Pageable pageable);
+
+    @Query("SELECT g FROM GameScore g WHERE g.difficulty = :difficulty AND (g.completionTimeSeconds > :time"
+            + " OR (g.completionTimeSeconds = :time AND g.id > :id))"
+            + " ORDER BY g.completionTimeSeconds ASC, g.id ASC")
+    List<GameScore> findPageAfterByDifficulty(@Param("difficulty") String difficulty,
+                                              @Param("time") long completionTimeSeconds, @Param("id") long id,
+                                              Pageable pageable);
+
+    // Reverse keyset, nearest first; with findPageAfter gives the rows around a player
+    @Query("SELECT g FROM GameScore g WHERE g.completionTimeSeconds < :time"
+            + " OR (g.completionTimeSeconds = :time AND g.id < :id)"
+            + " ORDER BY g.completionTimeSeconds DESC, g.id DESC")
+    List<GameScore> findPageBefore(@Param("time") long completionTimeSeconds, @Param("id") long id,
+                                   Pageable pageable);
+
+    @Query("SELECT g FROM GameScore g WHERE g.difficulty = :difficulty AND (g.completionTimeSeconds < :time"
+            + " OR (g.completionTimeSeconds = :time AND g.id < :id))"
+            + " ORDER BY g.completionTimeSeconds DESC, g.id DESC")
+    List<GameScore> findPageBeforeByDifficulty(@Param("difficulty") String difficulty,
+                                               @Param("time") long completionTimeSeconds, @Param("id") long id,
+                                               Pageable pageable);
+
+    // Zero-based leaderboard position of the (time, id) key
+    @Query("SELECT COUNT(g) FROM GameScore g WHERE g.completionTimeSeconds < :time"
+            + " OR (g.completionTimeSeconds = :time AND g.id < :id)")
+    int countBefore(@Param("time") long completionTimeSeconds, @Param("id") long id);
+
+    @Query("SELECT COUNT(g) FROM GameScore g WHERE g.difficulty = :difficulty AND (g.completionTimeSeconds < :time"
+            + " OR (g.completionTimeSeconds = :time AND g.id < :id))")
+    int countBeforeByDifficulty(@Param("difficulty") String difficulty,
+                                @Param("time") long completionTimeSeconds, @Param("id") long id);
 }
@@ -0,0 +1,61 @@
+package com.fearjosh.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public class IdempotencyKeyJdbcRepository {
+
+    private static final RowMapper<IdempotencyRecord> ROW_MAPPER = (rs, rowNum) -> new IdempotencyRecord(
+            rs.getString("idempotency_key"),
+            rs.getString("request_fingerprint"),
+            rs.getString("response"),
+            rs.getObject("created_at", LocalDateTime.class)
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public IdempotencyKeyJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the key unless it exists. On PostgreSQL a concurrent claim of the same key waits
+     * for the first transaction to finish, so the loser then sees the committed response.
+     */
+    public boolean claim(String key, String requestFingerprint, LocalDateTime now) {
+        return jdbcTemplate.update("INSERT INTO submission_idempotency_keys"
+                        + " (idempotency_key, request_fingerprint, created_at) VALUES (?, ?, ?)"
+                        + " ON CONFLICT DO NOTHING",
+                key, requestFingerprint, Timestamp.valueOf(now)) > 0;
+    }
+
+    public void complete(String key, String response) {
+        jdbcTemplate.update("UPDATE submission_idempotency_keys SET response = ? WHERE idempotency_key = ?",
+                response, key);
+    }
+
+    public Optional<IdempotencyRecord> find(String key) {
+        List<IdempotencyRecord> rows = jdbcTemplate.query("SELECT idempotency_key, request_fingerprint, response,"
+                + " created_at FROM submission_idempotency_keys WHERE idempotency_key = ?", ROW_MAPPER, key);
+        return rows.stream().findFirst();
+    }
+
+    public int deleteExpired(String key, LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM submission_idempotency_keys WHERE idempotency_key = ? AND created_at < ?",
+                key, Timestamp.valueOf(cutoff));
+    }
+
+    public int deleteOlderThan(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM submission_idempotency_keys WHERE created_at < ?",
+                Timestamp.valueOf(cutoff));
+    }
+}
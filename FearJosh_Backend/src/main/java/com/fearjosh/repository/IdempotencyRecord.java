@@ -0,0 +1,14 @@
+package com.fearjosh.repository;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class IdempotencyRecord {
+    String key;
+    String requestFingerprint;
+    // Null while the submission that claimed the key has not committed
+    String response;
+    LocalDateTime createdAt;
+}
@@ -0,0 +1,21 @@
+package com.fearjosh.repository;
+
+import com.fearjosh.model.LeaderboardPeriod;
+import com.fearjosh.ranking.ScoreEntry;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * A player's best run inside one leaderboard window; the score id is null until stored.
+ */
+@Value
+@AllArgsConstructor
+public class PeriodScore {
+
+    LeaderboardPeriod period;
+    String periodKey;
+    LocalDateTime periodEndsAt;
+    ScoreEntry score;
+}
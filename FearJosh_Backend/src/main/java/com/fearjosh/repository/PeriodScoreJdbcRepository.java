@@ -0,0 +1,229 @@
+package com.fearjosh.repository;
+
+import com.fearjosh.model.LeaderboardPeriod;
+import com.fearjosh.ranking.ScoreEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JDBC access to period_scores (the live daily / weekly / seasonal windows) and to
+ * period_leaderboard_archive (what is left of a window once it has been compacted).
+ * Uses the same conditional upsert as {@link GameScoreJdbcRepository}, scoped to a window.
+ */
+@Repository
+public class PeriodScoreJdbcRepository {
+
+    private static final String BOARD_ALL = "ALL";
+
+    private static final String COLUMNS =
+            "id, period, period_key, period_ends_at, player_id, username, difficulty, completion_time_seconds, completed_at";
+
+    private static final String POSTGRES_INSERT_ON_CONFLICT =
+            "INSERT INTO period_scores (period, period_key, period_ends_at, player_id, username, difficulty,"
+            + " completion_time_seconds, completed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)"
+            + " ON CONFLICT (period, period_key, player_id) DO UPDATE SET"
+            + " username = EXCLUDED.username,"
+            + " difficulty = EXCLUDED.difficulty,"
+            + " completion_time_seconds = EXCLUDED.completion_time_seconds,"
+            + " completed_at = EXCLUDED.completed_at"
+            + " WHERE period_scores.difficulty <> EXCLUDED.difficulty"
+            + " OR EXCLUDED.completion_time_seconds < period_scores.completion_time_seconds";
+
+    private static final String MERGE_UPSERT =
+            "MERGE INTO period_scores t"
+            + " USING (SELECT CAST(? AS VARCHAR(16)) AS period, CAST(? AS VARCHAR(16)) AS period_key,"
+            + " CAST(? AS TIMESTAMP) AS period_ends_at, CAST(? AS VARCHAR(255)) AS player_id,"
+            + " CAST(? AS VARCHAR(255)) AS username, CAST(? AS VARCHAR(255)) AS difficulty,"
+            + " CAST(? AS BIGINT) AS completion_time_seconds, CAST(? AS TIMESTAMP) AS completed_at) s"
+            + " ON t.period = s.period AND t.period_key = s.period_key AND t.player_id = s.player_id"
+            + " WHEN MATCHED AND (t.difficulty <> s.difficulty OR s.completion_time_seconds < t.completion_time_seconds) THEN"
+            + " UPDATE SET username = s.username, difficulty = s.difficulty,"
+            + " completion_time_seconds = s.completion_time_seconds, completed_at = s.completed_at"
+            + " WHEN NOT MATCHED THEN"
+            + " INSERT (period, period_key, period_ends_at, player_id, username, difficulty, completion_time_seconds, completed_at)"
+            + " VALUES (s.period, s.period_key, s.period_ends_at, s.player_id, s.username, s.difficulty,"
+            + " s.completion_time_seconds, s.completed_at)";
+
+    // Ranks every row of a window per board and keeps the top of each
+    private static final String ARCHIVE_BY_DIFFICULTY =
+            "INSERT INTO period_leaderboard_archive (period, period_key, board, board_rank, score_id, player_id,"
+            + " username, difficulty, completion_time_seconds, completed_at, total_players)"
+            + " SELECT period, period_key, difficulty, board_rank, id, player_id, username, difficulty,"
+            + " completion_time_seconds, completed_at, total_players FROM ("
+            + " SELECT s.*, ROW_NUMBER() OVER (PARTITION BY difficulty ORDER BY completion_time_seconds, id) AS board_rank,"
+            + " COUNT(*) OVER (PARTITION BY difficulty) AS total_players"
+            + " FROM period_scores s WHERE period = ? AND period_key = ?) ranked"
+            + " WHERE board_rank <= ?";
+
+    private static final String ARCHIVE_ALL =
+            "INSERT INTO period_leaderboard_archive (period, period_key, board, board_rank, score_id, player_id,"
+            + " username, difficulty, completion_time_seconds, completed_at, total_players)"
+            + " SELECT period, period_key, '" + BOARD_ALL + "', board_rank, id, player_id, username, difficulty,"
+            + " completion_time_seconds, completed_at, total_players FROM ("
+            + " SELECT s.*, ROW_NUMBER() OVER (ORDER BY completion_time_seconds, id) AS board_rank,"
+            + " COUNT(*) OVER () AS total_players"
+            + " FROM period_scores s WHERE period = ? AND period_key = ?) ranked"
+            + " WHERE board_rank <= ?";
+
+    private static final RowMapper<PeriodScore> ROW_MAPPER = (rs, rowNum) -> new PeriodScore(
+            LeaderboardPeriod.valueOf(rs.getString("period")),
+            rs.getString("period_key"),
+            rs.getObject("period_ends_at", LocalDateTime.class),
+            new ScoreEntry(
+                    rs.getLong("id"),
+                    rs.getString("player_id"),
+                    rs.getString("username"),
+                    rs.getString("difficulty"),
+                    rs.getLong("completion_time_seconds"),
+                    rs.getObject("completed_at", LocalDateTime.class)
+            )
+    );
+
+    private static final RowMapper<ScoreEntry> ARCHIVE_ROW_MAPPER = (rs, rowNum) -> new ScoreEntry(
+            rs.getLong("score_id"),
+            rs.getString("player_id"),
+            rs.getString("username"),
+            rs.getString("difficulty"),
+            rs.getLong("completion_time_seconds"),
+            rs.getObject("completed_at", LocalDateTime.class)
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseProduct databaseProduct;
+
+    @Autowired
+    public PeriodScoreJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseProduct = new DatabaseProduct(jdbcTemplate);
+    }
+
+    /**
+     * Upserts every candidate into its window as one JDBC batch and returns the stored rows that
+     * changed. Candidates must be distinct per (period, window, player).
+     */
+    public List<PeriodScore> upsertBestBatch(List<PeriodScore> candidates) {
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        int[] counts = jdbcTemplate.batchUpdate(databaseProduct.isPostgres() ? POSTGRES_INSERT_ON_CONFLICT : MERGE_UPSERT,
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        PeriodScore candidate = candidates.get(i);
+                        ScoreEntry score = candidate.getScore();
+                        ps.setString(1, candidate.getPeriod().name());
+                        ps.setString(2, candidate.getPeriodKey());
+                        ps.setTimestamp(3, Timestamp.valueOf(candidate.getPeriodEndsAt()));
+                        ps.setString(4, score.getPlayerId());
+                        ps.setString(5, score.getUsername());
+                        ps.setString(6, score.getDifficulty());
+                        ps.setLong(7, score.getCompletionTimeSeconds());
+                        ps.setTimestamp(8, Timestamp.valueOf(score.getCompletedAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return candidates.size();
+                    }
+                });
+
+        List<Object> keys = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            // SUCCESS_NO_INFO means the driver cannot tell; treat it as changed
+            if (counts[i] != 0) {
+                PeriodScore candidate = candidates.get(i);
+                keys.add(candidate.getPeriod().name());
+                keys.add(candidate.getPeriodKey());
+                keys.add(candidate.getScore().getPlayerId());
+            }
+        }
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(keys.size() / 3, "(?, ?, ?)"));
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM period_scores"
+                + " WHERE (period, period_key, player_id) IN (" + placeholders + ")", ROW_MAPPER, keys.toArray());
+    }
+
+    public List<PeriodScore> findWindow(LeaderboardPeriod period, String periodKey) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM period_scores WHERE period = ? AND period_key = ?",
+                ROW_MAPPER, period.name(), periodKey);
+    }
+
+    // Top of a window that has not been compacted yet; a null difficulty means all difficulties
+    public List<ScoreEntry> findTop(LeaderboardPeriod period, String periodKey, String difficulty, int limit) {
+        String sql = "SELECT " + COLUMNS + " FROM period_scores WHERE period = ? AND period_key = ?"
+                + (difficulty != null ? " AND difficulty = ?" : "")
+                + " ORDER BY completion_time_seconds ASC, id ASC FETCH FIRST " + limit + " ROWS ONLY";
+        Object[] args = difficulty != null
+                ? new Object[]{period.name(), periodKey, difficulty}
+                : new Object[]{period.name(), periodKey};
+        List<ScoreEntry> top = new ArrayList<>();
+        jdbcTemplate.query(sql, ROW_MAPPER, args).forEach(row -> top.add(row.getScore()));
+        return top;
+    }
+
+    public int count(LeaderboardPeriod period, String periodKey, String difficulty) {
+        String sql = "SELECT COUNT(*) FROM period_scores WHERE period = ? AND period_key = ?"
+                + (difficulty != null ? " AND difficulty = ?" : "");
+        Object[] args = difficulty != null
+                ? new Object[]{period.name(), periodKey, difficulty}
+                : new Object[]{period.name(), periodKey};
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, args);
+        return count == null ? 0 : count;
+    }
+
+    public List<ScoreEntry> findArchived(LeaderboardPeriod period, String periodKey, String difficulty, int limit) {
+        return jdbcTemplate.query("SELECT * FROM period_leaderboard_archive"
+                        + " WHERE period = ? AND period_key = ? AND board = ? AND board_rank <= ? ORDER BY board_rank",
+                ARCHIVE_ROW_MAPPER, period.name(), periodKey, board(difficulty), limit);
+    }
+
+    public int countArchived(LeaderboardPeriod period, String periodKey, String difficulty) {
+        List<Integer> totals = jdbcTemplate.queryForList("SELECT total_players FROM period_leaderboard_archive"
+                        + " WHERE period = ? AND period_key = ? AND board = ? AND board_rank = 1",
+                Integer.class, period.name(), periodKey, board(difficulty));
+        return totals.isEmpty() ? 0 : totals.get(0);
+    }
+
+    // Windows whose rows are still live although the window ended before the cutoff
+    public List<PeriodScore> findEndedWindows(LocalDateTime cutoff) {
+        return jdbcTemplate.query("SELECT DISTINCT period, period_key, period_ends_at FROM period_scores"
+                        + " WHERE period_ends_at < ?",
+                (rs, rowNum) -> new PeriodScore(LeaderboardPeriod.valueOf(rs.getString("period")),
+                        rs.getString("period_key"), rs.getObject("period_ends_at", LocalDateTime.class), null),
+                Timestamp.valueOf(cutoff));
+    }
+
+    /**
+     * Keeps the top {@code keep} rows of every board of the window in the archive and deletes
+     * the window's live rows, atomically. Returns the number of live rows removed.
+     */
+    @Transactional
+    public int compactWindow(LeaderboardPeriod period, String periodKey, int keep) {
+        jdbcTemplate.update(ARCHIVE_BY_DIFFICULTY, period.name(), periodKey, keep);
+        jdbcTemplate.update(ARCHIVE_ALL, period.name(), periodKey, keep);
+        return jdbcTemplate.update("DELETE FROM period_scores WHERE period = ? AND period_key = ?",
+                period.name(), periodKey);
+    }
+
+    public int deleteByPlayerId(String playerId) {
+        return jdbcTemplate.update("DELETE FROM period_scores WHERE player_id = ?", playerId);
+    }
+
+    private static String board(String difficulty) {
+        return difficulty != null ? difficulty : BOARD_ALL;
+    }
+}
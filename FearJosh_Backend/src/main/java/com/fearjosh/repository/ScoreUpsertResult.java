@@ -0,0 +1,16 @@
+package com.fearjosh.repository;
+
+import com.fearjosh.model.GameScore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScoreUpsertResult {
+
+    // The row that won: the new submission when changed, otherwise the player's existing best
+    private GameScore score;
+    private boolean changed;
+}
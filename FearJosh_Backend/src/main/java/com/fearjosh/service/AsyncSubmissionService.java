@@ -0,0 +1,237 @@
+package com.fearjosh.service;
+
+import com.fearjosh.dto.GameScoreRequest;
+import com.fearjosh.dto.GameScoreResponse;
+import com.fearjosh.dto.PlayerRankResponse;
+import com.fearjosh.dto.SubmissionStatus;
+import com.fearjosh.dto.SubmissionStatusResponse;
+import com.fearjosh.exception.ResourceNotFoundException;
+import com.fearjosh.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional asynchronous mode for POST /scores. The request is answered with 202 and a ticket as
+ * soon as it is queued; a dedicated fixed pool submits it as the synchronous path would, then
+ * records the player's rank on the ticket for GET /scores/submissions/{ticketId}.
+ *
+ * Back-pressure is a bounded queue plus a cap on live tickets, both answered with 429. A
+ * submission still queued {@code timeout-ms} after it was accepted is not run and ends TIMED_OUT,
+ * and the run itself is one transaction with the same timeout. Finished tickets are kept for
+ * {@code ticket-ttl-minutes}. In sharded mode the submission and rank go to the player's shard,
+ * where the shard transaction replaces the timed one.
+ *
+ * Tickets live in the memory of the instance that accepted the submission, so with several
+ * instances the status must be polled on that same instance (sticky routing), and a restart
+ * forgets them. On shutdown the queue is given as long as a ticket can take, its queue deadline
+ * plus the transaction timeout; tickets still unfinished after that are marked FAILED.
+ */
+@Slf4j
+@Service
+public class AsyncSubmissionService {
+
+    @Autowired
+    private GameScoreService gameScoreService;
+
+    @Autowired
+    private SubmissionDeduplicator submissionDeduplicator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Only present in sharded mode
+    @Autowired(required = false)
+    private ShardedLeaderboardService shardedLeaderboardService;
+
+    @Value("${fearjosh.ingestion.async.enabled:false}")
+    private boolean enabled;
+
+    @Value("${fearjosh.ingestion.async.threads:4}")
+    private int threads;
+
+    @Value("${fearjosh.ingestion.async.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${fearjosh.ingestion.async.timeout-ms:5000}")
+    private long timeoutMs;
+
+    @Value("${fearjosh.ingestion.async.ticket-ttl-minutes:10}")
+    private long ticketTtlMinutes;
+
+    @Value("${fearjosh.ingestion.async.max-tickets:100000}")
+    private int maxTickets;
+
+    private ThreadPoolExecutor executor;
+    private TransactionTemplate transactionTemplate;
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+
+    private static final class Ticket {
+        final String id;
+        final String playerId;
+        final LocalDateTime acceptedAt = LocalDateTime.now();
+        final long deadlineNanos;
+        volatile SubmissionStatus status = SubmissionStatus.QUEUED;
+        volatile LocalDateTime completedAt;
+        volatile long finishedAtNanos;
+        volatile GameScoreResponse score;
+        volatile PlayerRankResponse rank;
+        volatile String error;
+
+        Ticket(String playerId, long deadlineNanos) {
+            this.id = UUID.randomUUID().toString();
+            this.playerId = playerId;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        void finish(SubmissionStatus outcome, String reason) {
+            error = reason;
+            completedAt = LocalDateTime.now();
+            finishedAtNanos = System.nanoTime();
+            // Written last, so a poller that sees the final status also sees the fields above
+            status = outcome;
+        }
+
+        SubmissionStatusResponse toResponse() {
+            SubmissionStatus current = status;
+            boolean done = current != SubmissionStatus.QUEUED && current != SubmissionStatus.PROCESSING;
+            return new SubmissionStatusResponse(id, playerId, current, acceptedAt,
+                    done ? completedAt : null, done ? score : null, done ? rank : null, done ? error : null);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "score-submit-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMs + 999)));
+        Gauge.builder("fearjosh.submissions.async.queued", executor, e -> e.getQueue().size())
+                .description("Asynchronous submissions waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("fearjosh.submissions.async.tickets", tickets, Map::size)
+                .description("Asynchronous submission tickets held for polling")
+                .register(meterRegistry);
+        log.info("Asynchronous score submission enabled (threads={}, queueCapacity={}, timeoutMs={})",
+                threads, queueCapacity, timeoutMs);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        // Queued submissions still run; any that wait past their deadline end TIMED_OUT
+        executor.shutdown();
+        if (executor.awaitTermination(2 * timeoutMs + 1000, TimeUnit.MILLISECONDS)) {
+            return;
+        }
+        executor.shutdownNow();
+        int abandoned = 0;
+        for (Ticket ticket : tickets.values()) {
+            SubmissionStatus current = ticket.status;
+            if (current == SubmissionStatus.QUEUED) {
+                ticket.finish(SubmissionStatus.FAILED, "Server shut down before the submission ran, please resubmit");
+                abandoned++;
+            } else if (current == SubmissionStatus.PROCESSING) {
+                ticket.finish(SubmissionStatus.FAILED,
+                        "Server shut down while storing the submission; it may have been saved, check the player's score");
+                abandoned++;
+            }
+        }
+        log.error("Asynchronous submissions did not finish before shutdown; {} tickets marked FAILED", abandoned);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public SubmissionStatusResponse submit(GameScoreRequest request, String idempotencyKey) {
+        if (tickets.size() >= maxTickets) {
+            throw new TooManyRequestsException("Too many score submissions in flight, please retry shortly");
+        }
+        Ticket ticket = new Ticket(request.getPlayerId(), System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+        tickets.put(ticket.id, ticket);
+        try {
+            executor.execute(() -> process(ticket, request, idempotencyKey));
+        } catch (RejectedExecutionException e) {
+            tickets.remove(ticket.id);
+            throw new TooManyRequestsException("Score submission queue is full, please retry shortly");
+        }
+        return ticket.toResponse();
+    }
+
+    public SubmissionStatusResponse getStatus(String ticketId) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            throw new ResourceNotFoundException("Submission ticket not found or expired: " + ticketId);
+        }
+        return ticket.toResponse();
+    }
+
+    @Scheduled(fixedDelayString = "${fearjosh.ingestion.async.purge-interval-ms:60000}")
+    public void purgeFinished() {
+        long cutoff = System.nanoTime() - TimeUnit.MINUTES.toNanos(ticketTtlMinutes);
+        tickets.values().removeIf(ticket -> ticket.finishedAtNanos != 0 && ticket.finishedAtNanos - cutoff < 0);
+    }
+
+    private void process(Ticket ticket, GameScoreRequest request, String idempotencyKey) {
+        if (System.nanoTime() - ticket.deadlineNanos > 0) {
+            ticket.finish(SubmissionStatus.TIMED_OUT, "Not started within " + timeoutMs + " ms, please resubmit");
+            return;
+        }
+        ticket.status = SubmissionStatus.PROCESSING;
+        try {
+            if (shardedLeaderboardService != null) {
+                ticket.score = idempotencyKey == null
+                        ? shardedLeaderboardService.submitScore(request)
+                        : submissionDeduplicator.submit(idempotencyKey, request);
+                ticket.rank = shardedLeaderboardService.getPlayerRank(request.getPlayerId());
+            } else {
+                ticket.score = transactionTemplate.execute(status -> idempotencyKey == null
+                        ? gameScoreService.submitScore(request)
+                        : submissionDeduplicator.submit(idempotencyKey, request));
+                // Committed, so the rank index already reflects the new score
+                ticket.rank = gameScoreService.getPlayerRank(request.getPlayerId());
+            }
+            ticket.finish(SubmissionStatus.COMPLETED, null);
+        } catch (TransactionTimedOutException | QueryTimeoutException e) {
+            log.warn("Submission {} for player {} timed out", ticket.id, ticket.playerId);
+            ticket.finish(SubmissionStatus.TIMED_OUT, "Not completed within " + timeoutMs + " ms, please resubmit");
+        } catch (RuntimeException e) {
+            log.warn("Submission {} for player {} failed: {}", ticket.id, ticket.playerId, e.getMessage());
+            ticket.finish(SubmissionStatus.FAILED, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.fearjosh.service;
+
+import com.fearjosh.dto.BulkScoreResponse;
+import com.fearjosh.dto.BulkScoreResult;
+import com.fearjosh.dto.GameScoreRequest;
+import com.fearjosh.dto.GameScoreResponse;
+import com.fearjosh.dto.SubmissionOutcome;
+import com.fearjosh.model.GameScore;
+import com.fearjosh.repository.GameScoreJdbcRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The bulk submit shared by the single-database and the sharded path. Runs in the caller's
+ * transaction on the given repository: one locking lookup, at most two JDBC batches and one
+ * reload. Items are replayed in request order against the locked rows, so both the stored
+ * result and the per-item outcome match one submitScore per item.
+ */
+final class BulkSubmission {
+
+    private BulkSubmission() {
+    }
+
+    // Results are indexed by position in requests; onChanged sees every row the writes changed
+    static List<BulkScoreResult> apply(GameScoreJdbcRepository repository, List<GameScoreRequest> requests,
+                                       Function<GameScore, GameScoreResponse> converter, Consumer<GameScore> onChanged) {
+        List<String> playerIds = requests.stream()
+                .map(GameScoreRequest::getPlayerId)
+                .distinct()
+                .collect(Collectors.toList());
+
+        // Locked, so the outcomes replayed below are the ones the writes produce
+        Map<String, GameScoreRequest> state = new HashMap<>();
+        for (GameScore existing : repository.findByPlayerIdsForUpdate(playerIds)) {
+            state.put(existing.getPlayerId(), new GameScoreRequest(existing.getPlayerId(), existing.getUsername(),
+                    existing.getDifficulty(), existing.getCompletionTimeSeconds()));
+        }
+        Map<String, GameScoreRequest> stored = new HashMap<>(state);
+
+        List<SubmissionOutcome> outcomes = new ArrayList<>(requests.size());
+        for (GameScoreRequest request : requests) {
+            GameScoreRequest current = state.get(request.getPlayerId());
+            GameScoreRequest winner = ScoreCoalescer.merge(current, request);
+            state.put(request.getPlayerId(), winner);
+            if (current == null) {
+                outcomes.add(SubmissionOutcome.CREATED);
+            } else {
+                outcomes.add(winner == request ? SubmissionOutcome.UPDATED : SubmissionOutcome.UNCHANGED);
+            }
+        }
+
+        // Players whose replay ended on their stored row were not changed by any item
+        CoalescedSubmissions coalesced = ScoreCoalescer.coalesce(requests.stream()
+                .filter(request -> state.get(request.getPlayerId()) != stored.get(request.getPlayerId()))
+                .collect(Collectors.toList()));
+        repository.upsertBestBatch(toCandidates(coalesced.getBridges())).forEach(onChanged);
+        repository.upsertBestBatch(toCandidates(coalesced.getFinals())).forEach(onChanged);
+
+        Map<String, GameScoreResponse> finalScores = new HashMap<>();
+        for (GameScore score : repository.findByPlayerIds(playerIds)) {
+            finalScores.put(score.getPlayerId(), converter.apply(score));
+        }
+
+        List<BulkScoreResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            String playerId = requests.get(i).getPlayerId();
+            results.add(new BulkScoreResult(i, playerId, outcomes.get(i), finalScores.get(playerId)));
+        }
+        return results;
+    }
+
+    static BulkScoreResponse summarize(List<BulkScoreResult> results) {
+        int[] counts = new int[SubmissionOutcome.values().length];
+        results.forEach(result -> counts[result.getOutcome().ordinal()]++);
+        return new BulkScoreResponse(
+                results.size(),
+                counts[SubmissionOutcome.CREATED.ordinal()],
+                counts[SubmissionOutcome.UPDATED.ordinal()],
+                counts[SubmissionOutcome.UNCHANGED.ordinal()],
+                results
+        );
+    }
+
+    static List<GameScore> toCandidates(List<GameScoreRequest> requests) {
+        return requests.stream().map(BulkSubmission::toCandidate).collect(Collectors.toList());
+    }
+
+    static GameScore toCandidate(GameScoreRequest request) {
+        return new GameScore(
+                request.getPlayerId(),
+                request.getUsername(),
+                request.getDifficulty(),
+                request.getCompletionTimeSeconds(),
+                GameScoreService.formatTime(request.getCompletionTimeSeconds())
+        );
+    }
+}
@@ -0,0 +1,18 @@
+package com.fearjosh.service;
+
+import com.fearjosh.dto.LeaderboardResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedLeaderboard {
+
+    private LeaderboardResponse leaderboard;
+    // Null when the view was not served from the cache (index still warming, or limit too large)
+    private String etag;
+    // Pre-rendered response body; null when the view was not served from the cache or rendering is off
+    private LeaderboardPayload payload;
+}
@@ -0,0 +1,22 @@
+package com.fearjosh.service;
+
+import com.fearjosh.dto.GameScoreRequest;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Submissions reduced per player for two rounds of the conditional upsert: {@code bridges} first,
+ * then {@code finals}. Written in that order they leave every row where submitting each request
+ * in order would have.
+ */
+@Value
+@AllArgsConstructor
+public class CoalescedSubmissions {
+
+    // Best of the next-to-last run of one difficulty, only for players whose difficulty changed
+    List<GameScoreRequest> bridges;
+    // Best of the last run of one difficulty, one per player
+    List<GameScoreRequest> finals;
+}
@@ -0,0 +1,70 @@
+package com.fearjosh.service;
+
+import com.fearjosh.model.GameScore;
+import com.fearjosh.ranking.ScoreEntry;
+import com.fearjosh.repository.GameRunJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Every submitted run, kept in game_runs next to the best-per-player rows of game_scores.
+ * Runs are appended in the submitting transaction; a daily job prepares the coming monthly
+ * partitions and removes months past the retention period.
+ */
+@Slf4j
+@Service
+public class GameRunService {
+
+    @Autowired
+    private GameRunJdbcRepository gameRunJdbcRepository;
+
+    @Value("${fearjosh.runs.retention-months:13}")
+    private int retentionMonths;
+
+    @Value("${fearjosh.runs.partitions-ahead:2}")
+    private int partitionsAhead;
+
+    private final Clock clock = Clock.systemUTC();
+
+    public void record(List<GameScore> runs) {
+        gameRunJdbcRepository.appendBatch(runs, LocalDateTime.now(clock));
+    }
+
+    public List<ScoreEntry> getRuns(String playerId, int limit) {
+        return gameRunJdbcRepository.findByPlayerId(playerId, limit);
+    }
+
+    public long countRuns(String playerId) {
+        return gameRunJdbcRepository.countByPlayerId(playerId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${fearjosh.runs.maintenance-cron:0 30 3 * * *}")
+    public void maintain() {
+        YearMonth now = YearMonth.now(clock);
+        for (int i = 0; i <= partitionsAhead; i++) {
+            try {
+                gameRunJdbcRepository.createPartition(now.plusMonths(i));
+            } catch (RuntimeException e) {
+                // Typically rows for that month already sit in the default partition
+                log.warn("Could not create game_runs partition for {}: {}", now.plusMonths(i), e.getMessage());
+            }
+        }
+
+        YearMonth oldestKept = now.minusMonths(retentionMonths - 1L);
+        int removed = gameRunJdbcRepository.deleteBefore(oldestKept);
+        if (removed > 0) {
+            log.info("Removed game runs before {} ({} partitions or rows)", oldestKept, removed);
+        }
+    }
+}
@@ -1,73 +1,164 @@
 package com.fearjosh.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fearjosh.dto.*;
 import com.fearjosh.exception.ResourceNotFoundException;
-import com.fearjosh.exception.DuplicateResourceException;
+import com.fearjosh.exception.InvalidRequestException;
+import com.fearjosh.metrics.ScoreMetrics;
 import com.fearjosh.model.GameScore;
+import com.fearjosh.model.LeaderboardPeriod;
+import com.fearjosh.ranking.DistributionSnapshot;
+import com.fearjosh.ranking.RankWindow;
+import com.fearjosh.ranking.ScoreEntry;
+import com.fearjosh.ranking.ScoreDistributionIndex;
+import com.fearjosh.ranking.ScoreRankIndex;
+import com.fearjosh.ranking.UsernameSearchIndex;
 import com.fearjosh.repository.GameScoreRepository;
+import com.fearjosh.repository.GameScoreJdbcRepository;
+import com.fearjosh.repository.IdempotencyKeyJdbcRepository;
+import com.fearjosh.repository.ScoreUpsertResult;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class GameScoreService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    private static final int MAX_NEIGHBORHOOD_RADIUS = 50;
+    // Each sampled player costs two rank queries on the primary
+    private static final int MAX_CONSISTENCY_SAMPLE = 500;
+    private static final double[] STATS_PERCENTILES = {25, 50, 75, 90, 99};
+
     @Autowired
     private GameScoreRepository gameScoreRepository;
 
+    @Autowired
+    private GameScoreJdbcRepository gameScoreJdbcRepository;
+
+    @Autowired
+    private ScoreRankIndex scoreRankIndex;
+
+    @Autowired
+    private UsernameSearchIndex usernameSearchIndex;
+
+    @Autowired
+    private ScoreDistributionIndex scoreDistributionIndex;
+
+    @Autowired
+    private LeaderboardCache leaderboardCache;
+
+    @Autowired
+    private PeriodLeaderboardService periodLeaderboardService;
+
+    @Autowired
+    private GameRunService gameRunService;
+
+    @Autowired
+    private IdempotencyKeyJdbcRepository idempotencyKeyJdbcRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ScoreMetrics scoreMetrics;
+
     public GameScoreResponse submitScore(GameScoreRequest request) {
-        // Check if player already has a score
-        if (gameScoreRepository.existsByPlayerId(request.getPlayerId())) {
-            // Update existing score if new one is better
-            GameScore existingScore = gameScoreRepository.findByPlayerId(request.getPlayerId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Score not found"));
-            
-            // Only update if same difficulty and better time, or different difficulty
-            if (existingScore.getDifficulty().equals(request.getDifficulty())) {
-                if (request.getCompletionTimeSeconds() < existingScore.getCompletionTimeSeconds()) {
-                    existingScore.setCompletionTimeSeconds(request.getCompletionTimeSeconds());
-                    existingScore.setCompletionTimeFormatted(formatTime(request.getCompletionTimeSeconds()));
-                    existingScore.setUsername(request.getUsername());
-                    GameScore savedScore = gameScoreRepository.save(existingScore);
-                    return convertToResponse(savedScore);
-                } else {
-                    // Return existing score if new time is not better
-                    return convertToResponse(existingScore);
-                }
-            } else {
-                // Different difficulty - update everything
-                existingScore.setDifficulty(request.getDifficulty());
-                existingScore.setCompletionTimeSeconds(request.getCompletionTimeSeconds());
-                existingScore.setCompletionTimeFormatted(formatTime(request.getCompletionTimeSeconds()));
-                existingScore.setUsername(request.getUsername());
-                GameScore savedScore = gameScoreRepository.save(existingScore);
-                return convertToResponse(savedScore);
+        Timer.Sample sample = scoreMetrics.start();
+        try {
+            // Insert, or replace the existing row only on a better time or a different difficulty,
+            // resolved atomically by the database in a single statement
+            GameScore candidate = toCandidate(request);
+            gameRunService.record(List.of(candidate));
+            ScoreUpsertResult result = gameScoreJdbcRepository.upsertBest(candidate);
+            if (result.isChanged()) {
+                scoreRankIndex.record(result.getScore());
             }
+            // A run slower than the all-time best can still be the best of the day or week
+            periodLeaderboardService.record(List.of(candidate));
+            return convertToResponse(result.getScore());
+        } finally {
+            scoreMetrics.recordSubmit(sample, request.getDifficulty());
         }
+    }
 
-        // Create new score
-        GameScore gameScore = new GameScore(
-                request.getPlayerId(),
-                request.getUsername(),
-                request.getDifficulty(),
-                request.getCompletionTimeSeconds(),
-                formatTime(request.getCompletionTimeSeconds())
-        );
+    /**
+     * submitScore guarded by an idempotency key. The first call claims the key and stores its
+     * response in the same transaction as the score; a retry with the key replays that response
+     * without submitting again. Claims created before {@code expiredBefore} no longer count.
+     */
+    public GameScoreResponse submitScoreOnce(String idempotencyKey, String requestFingerprint,
+                                             GameScoreRequest request, LocalDateTime expiredBefore) {
+        return IdempotentSubmission.submitOnce(idempotencyKeyJdbcRepository, objectMapper, idempotencyKey,
+                requestFingerprint, expiredBefore, () -> submitScore(request));
+    }
+
+    // Same outcome as calling submitScore for each request in order, applied as at most two JDBC batches
+    public int submitScoreBatch(Collection<GameScoreRequest> requests) {
+        gameRunService.record(requests.stream().map(this::toCandidate).collect(Collectors.toList()));
+        CoalescedSubmissions coalesced = ScoreCoalescer.coalesce(requests);
+        List<GameScore> changed = upsertCoalesced(coalesced);
+        periodLeaderboardService.record(toCandidates(coalesced.getBridges()), toCandidates(coalesced.getFinals()));
+        return (int) changed.stream().map(GameScore::getPlayerId).distinct().count();
+    }
 
-        GameScore savedScore = gameScoreRepository.save(gameScore);
-        return convertToResponse(savedScore);
+    /**
+     * Applies many submissions with one locking lookup, at most two JDBC batches and one reload.
+     * Items are replayed in request order against the stored rows, so both the stored result and
+     * the per-item outcome match what calling submitScore once per item would have produced.
+     */
+    public BulkScoreResponse submitScores(List<GameScoreRequest> requests) {
+        Timer.Sample sample = scoreMetrics.start();
+        try {
+            return applySubmissions(requests);
+        } finally {
+            scoreMetrics.recordBulkSubmit(sample, requests.size());
+        }
     }
 
+    private BulkScoreResponse applySubmissions(List<GameScoreRequest> requests) {
+        gameRunService.record(requests.stream().map(this::toCandidate).collect(Collectors.toList()));
+        List<BulkScoreResult> results = BulkSubmission.apply(gameScoreJdbcRepository, requests,
+                this::convertToResponse, scoreRankIndex::record);
+        CoalescedSubmissions forPeriods = ScoreCoalescer.coalesce(requests);
+        periodLeaderboardService.record(toCandidates(forPeriods.getBridges()), toCandidates(forPeriods.getFinals()));
+        return BulkSubmission.summarize(results);
+    }
+
+    // A null difficulty selects the global board
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public CachedLeaderboard getCachedLeaderboard(String difficulty, int limit) {
+        Timer.Sample sample = scoreMetrics.start();
+        try {
+            if (difficulty == null) {
+                return leaderboardCache.get(LeaderboardCache.GLOBAL_BOARD, limit, () -> getGlobalLeaderboard(limit));
+            }
+            return leaderboardCache.get(difficulty, limit, () -> getLeaderboardByDifficulty(difficulty, limit));
+        } finally {
+            scoreMetrics.recordLeaderboard(sample, difficulty);
+        }
+    }
+
+    @Transactional(readOnly = true)
     public LeaderboardResponse getLeaderboardByDifficulty(String difficulty, int limit) {
         Pageable pageable = PageRequest.of(0, limit);
-        List<GameScore> scores = gameScoreRepository.findByDifficultyOrderByCompletionTimeSecondsAsc(difficulty, pageable);
+        List<GameScore> scores = gameScoreRepository.findByDifficultyOrderByCompletionTimeSecondsAscIdAsc(difficulty, pageable);
         
         List<GameScoreResponse> leaderboard = new ArrayList<>();
         int rank = 1;
@@ -82,9 +173,10 @@ public class GameScoreService {
         return new LeaderboardResponse(difficulty, (int) totalPlayers, leaderboard);
     }
 
+    @Transactional(readOnly = true)
     public LeaderboardResponse getGlobalLeaderboard(int limit) {
         Pageable pageable = PageRequest.of(0, limit);
-        List<GameScore> scores = gameScoreRepository.findAllByOrderByCompletionTimeSecondsAsc(pageable);
+        List<GameScore> scores = gameScoreRepository.findAllByOrderByCompletionTimeSecondsAscIdAsc(pageable);
         
         List<GameScoreResponse> leaderboard = new ArrayList<>();
         int rank = 1;
@@ -99,73 +191,339 @@ public class GameScoreService {
         return new LeaderboardResponse("ALL", (int) totalPlayers, leaderboard);
     }
 
+    // Served from the in-memory rank index; no connection is held unless the index is still warming
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public PlayerRankResponse getPlayerRank(String playerId) {
-        GameScore score = gameScoreRepository.findByPlayerId(playerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Player not found with ID: " + playerId));
+        Timer.Sample sample = scoreMetrics.start();
+        boolean fromIndex = scoreRankIndex.isReady();
+        // Failed lookups are timed too, under OTHER since the player's difficulty is unknown
+        String difficulty = ScoreMetrics.OTHER;
+        try {
+            ScoreEntry score = findRankedScore(playerId);
+            difficulty = score.getDifficulty();
 
-        int rank = gameScoreRepository.getPlayerRank(score.getDifficulty(), score.getCompletionTimeSeconds());
-        long totalPlayers = gameScoreRepository.countByDifficulty(score.getDifficulty());
+            int rank;
+            long totalPlayers;
+            if (fromIndex) {
+                rank = scoreRankIndex.getRank(score.getDifficulty(), score.getCompletionTimeSeconds());
+                totalPlayers = scoreRankIndex.countByDifficulty(score.getDifficulty());
+            } else {
+                rank = gameScoreRepository.getPlayerRank(score.getDifficulty(), score.getCompletionTimeSeconds());
+                totalPlayers = gameScoreRepository.countByDifficulty(score.getDifficulty());
+            }
 
-        return new PlayerRankResponse(
-                score.getPlayerId(),
-                score.getUsername(),
-                score.getDifficulty(),
-                score.getCompletionTimeSeconds(),
-                score.getCompletionTimeFormatted(),
-                rank,
-                (int) totalPlayers
-        );
+            return new PlayerRankResponse(
+                    score.getPlayerId(),
+                    score.getUsername(),
+                    score.getDifficulty(),
+                    score.getCompletionTimeSeconds(),
+                    formatTime(score.getCompletionTimeSeconds()),
+                    rank,
+                    (int) totalPlayers
+            );
+        } finally {
+            scoreMetrics.recordRank(sample, difficulty, fromIndex);
+        }
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public PlayerRankResponse getPlayerGlobalRank(String playerId) {
-        GameScore score = gameScoreRepository.findByPlayerId(playerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Player not found with ID: " + playerId));
+        Timer.Sample sample = scoreMetrics.start();
+        boolean fromIndex = scoreRankIndex.isReady();
+        try {
+            ScoreEntry score = findRankedScore(playerId);
 
-        int rank = gameScoreRepository.getPlayerGlobalRank(score.getCompletionTimeSeconds());
-        long totalPlayers = gameScoreRepository.count();
+            int rank;
+            long totalPlayers;
+            if (fromIndex) {
+                rank = scoreRankIndex.getGlobalRank(score.getCompletionTimeSeconds());
+                totalPlayers = scoreRankIndex.count();
+            } else {
+                rank = gameScoreRepository.getPlayerGlobalRank(score.getCompletionTimeSeconds());
+                totalPlayers = gameScoreRepository.count();
+            }
+
+            return new PlayerRankResponse(
+                    score.getPlayerId(),
+                    score.getUsername(),
+                    "ALL",
+                    score.getCompletionTimeSeconds(),
+                    formatTime(score.getCompletionTimeSeconds()),
+                    rank,
+                    (int) totalPlayers
+            );
+        } finally {
+            scoreMetrics.recordRank(sample, ScoreMetrics.GLOBAL, fromIndex);
+        }
+    }
+
+    // A null periodKey selects the window in progress; a null difficulty selects all difficulties
+    @Transactional(readOnly = true)
+    public PeriodLeaderboardResponse getPeriodLeaderboard(LeaderboardPeriod period, String difficulty,
+                                                          String periodKey, int limit) {
+        PeriodStanding standing = periodLeaderboardService.getStanding(period, difficulty, periodKey,
+                Math.min(Math.max(limit, 1), MAX_PAGE_SIZE));
+
+        List<GameScoreResponse> leaderboard = new ArrayList<>();
+        int rank = 1;
+        for (ScoreEntry entry : standing.getEntries()) {
+            GameScoreResponse response = convertToResponse(entry);
+            response.setRank(rank++);
+            leaderboard.add(response);
+        }
+        return new PeriodLeaderboardResponse(period.name(), standing.getPeriodKey(),
+                difficulty != null ? difficulty : "ALL", standing.isArchived(), standing.getTotalPlayers(), leaderboard);
+    }
 
-        return new PlayerRankResponse(
+    // A null difficulty covers all difficulties; served from the cached distribution snapshot
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public DistributionStatsResponse getDistributionStats(String difficulty) {
+        DistributionSnapshot snapshot = scoreDistributionIndex.snapshot(difficulty);
+        Map<String, Long> percentiles = new LinkedHashMap<>();
+        for (double percentile : STATS_PERCENTILES) {
+            percentiles.put("p" + (int) percentile, snapshot.valueAtPercentile(percentile));
+        }
+        List<HistogramBin> histogram = snapshot.getHistogram().stream()
+                .map(bin -> new HistogramBin(bin.getFromSeconds(), bin.getToSeconds(), bin.getCount()))
+                .collect(Collectors.toList());
+        return new DistributionStatsResponse(difficulty != null ? difficulty : "ALL", snapshot.getTotal(),
+                snapshot.getMin(), snapshot.getMax(), percentiles, histogram);
+    }
+
+    // "You beat 87% of Hard players"; SQL counts only while the distributions are warming
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public PlayerPercentileResponse getPlayerPercentile(String playerId) {
+        ScoreEntry score = findRankedScore(playerId);
+        long total;
+        long slower;
+        if (scoreDistributionIndex.isReady()) {
+            DistributionSnapshot snapshot = scoreDistributionIndex.snapshot(score.getDifficulty());
+            total = snapshot.getTotal();
+            slower = snapshot.countSlowerThan(score.getCompletionTimeSeconds());
+        } else {
+            total = gameScoreRepository.countByDifficulty(score.getDifficulty());
+            slower = gameScoreRepository.countByDifficultyAndCompletionTimeSecondsGreaterThan(
+                    score.getDifficulty(), score.getCompletionTimeSeconds());
+        }
+        double beatPercent = total <= 1 ? 100.0 : Math.round(slower * 1000.0 / (total - 1)) / 10.0;
+
+        return new PlayerPercentileResponse(
                 score.getPlayerId(),
                 score.getUsername(),
-                "ALL",
+                score.getDifficulty(),
                 score.getCompletionTimeSeconds(),
-                score.getCompletionTimeFormatted(),
-                rank,
-                (int) totalPlayers
+                formatTime(score.getCompletionTimeSeconds()),
+                total,
+                beatPercent
         );
     }
 
+    // Most recent runs first, including those that did not beat the player's best
+    @Transactional(readOnly = true)
+    public PlayerRunsResponse getPlayerRuns(String playerId, int limit) {
+        List<GameScoreResponse> runs = gameRunService.getRuns(playerId, Math.min(Math.max(limit, 1), MAX_PAGE_SIZE))
+                .stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+        return new PlayerRunsResponse(playerId, gameRunService.countRuns(playerId), runs);
+    }
+
+    // The players directly above and below, ranked as /rank ranks them
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public NeighborhoodResponse getPlayerNeighborhood(String playerId, int radius) {
+        ScoreEntry score = findRankedScore(playerId);
+        return getNeighborhood(score.getDifficulty(), score, radius);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public NeighborhoodResponse getPlayerGlobalNeighborhood(String playerId, int radius) {
+        return getNeighborhood(null, findRankedScore(playerId), radius);
+    }
+
+    // Not read-only: compared with a lagging read replica, a correct index would look drifted
+    @Transactional
+    public RankIndexReport checkRankIndex(int sampleSize) {
+        return scoreRankIndex.checkConsistency(Math.min(Math.max(sampleSize, 1), MAX_CONSISTENCY_SAMPLE));
+    }
+
+    // Not read-only, so it runs on the primary: mostly answered by the second-level cache, which
+    // only primary reads fill, and a player sees their own submission straight away
+    @Transactional
     public GameScoreResponse getScoreByPlayerId(String playerId) {
         GameScore score = gameScoreRepository.findByPlayerId(playerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Player not found with ID: " + playerId));
         return convertToResponse(score);
     }
 
-    public List<GameScoreResponse> searchByUsername(String username) {
-        List<GameScore> scores = gameScoreRepository.findByUsernameContainingIgnoreCase(username);
-        return scores.stream()
+    // Exact, then prefix, then substring matches, fastest first; the LIKE scan is only a warm-up fallback
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<GameScoreResponse> searchByUsername(String username, int limit) {
+        int maxResults = Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS);
+        if (usernameSearchIndex.isReady()) {
+            return usernameSearchIndex.search(username, maxResults).stream()
+                    .map(this::convertToResponse)
+                    .collect(Collectors.toList());
+        }
+        // Like the index, a single character only matches name prefixes
+        List<GameScore> matches = username.trim().length() == 1
+                ? gameScoreRepository.findByUsernameStartingWithIgnoreCase(username.trim())
+                : gameScoreRepository.findByUsernameContainingIgnoreCase(username);
+        return matches.stream()
+                .limit(maxResults)
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<GameScoreResponse> getAllScores() {
-        return gameScoreRepository.findAllByOrderByCompletionTimeSecondsAsc()
+        return gameScoreRepository.findAllByOrderByCompletionTimeSecondsAscIdAsc()
                 .stream()
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public ScorePageResponse getScorePage(String difficulty, String cursor, int limit) {
+        if (limit < 1) {
+            throw new InvalidRequestException("Limit must be at least 1");
+        }
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+        ScoreCursor after = ScoreCursor.decode(cursor);
+        // One extra row tells us whether another page exists
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<GameScore> scores = difficulty == null
+                ? gameScoreRepository.findPageAfter(after.getCompletionTimeSeconds(), after.getId(), pageable)
+                : gameScoreRepository.findPageAfterByDifficulty(difficulty, after.getCompletionTimeSeconds(), after.getId(), pageable);
+
+        boolean hasMore = scores.size() > pageSize;
+        List<GameScoreResponse> page = new ArrayList<>(pageSize);
+        int rank = after.getPosition();
+        for (GameScore score : scores.subList(0, Math.min(pageSize, scores.size()))) {
+            GameScoreResponse response = convertToResponse(score);
+            response.setRank(++rank);
+            page.add(response);
+        }
+
+        String nextCursor = hasMore ? ScoreCursor.after(scores.get(pageSize - 1), rank).encode() : null;
+        return new ScorePageResponse(difficulty == null ? "ALL" : difficulty, page, nextCursor);
+    }
+
+    // Streams every score in leaderboard order without materializing the result set
+    @Transactional(readOnly = true)
+    public void exportScores(String difficulty, Consumer<GameScoreResponse> consumer) {
+        gameScoreJdbcRepository.streamOrdered(difficulty, EXPORT_FETCH_SIZE,
+                score -> consumer.accept(convertToResponse(score)));
+    }
+
     public void deleteScore(String playerId) {
         GameScore score = gameScoreRepository.findByPlayerId(playerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Player not found with ID: " + playerId));
         gameScoreRepository.delete(score);
+        gameScoreJdbcRepository.recordDeletion(playerId);
+        scoreRankIndex.remove(score);
+        periodLeaderboardService.remove(playerId);
     }
 
+    // On the primary, as getScoreByPlayerId
+    @Transactional
     public boolean playerExists(String playerId) {
-        return gameScoreRepository.existsByPlayerId(playerId);
+        return gameScoreRepository.findByPlayerId(playerId).isPresent();
     }
 
-    private String formatTime(Long totalSeconds) {
+    // Bridges first, then finals; returns the changed rows in the order they were written
+    private List<GameScore> upsertCoalesced(CoalescedSubmissions coalesced) {
+        List<GameScore> changed = new ArrayList<>(gameScoreJdbcRepository.upsertBestBatch(toCandidates(coalesced.getBridges())));
+        changed.addAll(gameScoreJdbcRepository.upsertBestBatch(toCandidates(coalesced.getFinals())));
+        changed.forEach(scoreRankIndex::record);
+        return changed;
+    }
+
+    private List<GameScore> toCandidates(List<GameScoreRequest> requests) {
+        return BulkSubmission.toCandidates(requests);
+    }
+
+    private GameScore toCandidate(GameScoreRequest request) {
+        return BulkSubmission.toCandidate(request);
+    }
+
+    private NeighborhoodResponse getNeighborhood(String difficulty, ScoreEntry score, int radius) {
+        int window = Math.min(Math.max(radius, 0), MAX_NEIGHBORHOOD_RADIUS);
+        RankWindow rankWindow = scoreRankIndex.isReady()
+                ? scoreRankIndex.window(difficulty, score.getPlayerId(), window)
+                : null;
+        if (rankWindow == null) {
+            rankWindow = findWindow(difficulty, score, window);
+        }
+
+        // Tied times share a rank, as on /rank: a player's rank is one more than the players strictly faster
+        List<GameScoreResponse> leaderboard = new ArrayList<>();
+        List<ScoreEntry> entries = rankWindow.getEntries();
+        int rank = rankWindow.getFirstRank();
+        int playerRank = rank;
+        for (int i = 0; i < entries.size(); i++) {
+            ScoreEntry entry = entries.get(i);
+            if (i > 0 && !entry.getCompletionTimeSeconds().equals(entries.get(i - 1).getCompletionTimeSeconds())) {
+                rank = rankWindow.getFirstPosition() + i + 1;
+            }
+            if (rankWindow.getFirstPosition() + i == rankWindow.getPlayerPosition()) {
+                playerRank = rank;
+            }
+            GameScoreResponse response = convertToResponse(entry);
+            response.setRank(rank);
+            leaderboard.add(response);
+        }
+        return new NeighborhoodResponse(score.getPlayerId(), difficulty != null ? difficulty : "ALL",
+                playerRank, rankWindow.getTotal(), leaderboard);
+    }
+
+    // Keyset reads on both sides of the player, used while the rank index is still warming
+    private RankWindow findWindow(String difficulty, ScoreEntry score, int radius) {
+        long time = score.getCompletionTimeSeconds();
+        long id = score.getId();
+        int position;
+        long total;
+        List<GameScore> above;
+        List<GameScore> below;
+        if (difficulty == null) {
+            position = gameScoreRepository.countBefore(time, id);
+            total = gameScoreRepository.count();
+            above = radius == 0 ? List.of() : gameScoreRepository.findPageBefore(time, id, PageRequest.of(0, radius));
+            below = radius == 0 ? List.of() : gameScoreRepository.findPageAfter(time, id, PageRequest.of(0, radius));
+        } else {
+            position = gameScoreRepository.countBeforeByDifficulty(difficulty, time, id);
+            total = gameScoreRepository.countByDifficulty(difficulty);
+            above = radius == 0 ? List.of()
+                    : gameScoreRepository.findPageBeforeByDifficulty(difficulty, time, id, PageRequest.of(0, radius));
+            below = radius == 0 ? List.of()
+                    : gameScoreRepository.findPageAfterByDifficulty(difficulty, time, id, PageRequest.of(0, radius));
+        }
+
+        List<ScoreEntry> entries = new ArrayList<>(above.size() + 1 + below.size());
+        for (int i = above.size() - 1; i >= 0; i--) {
+            entries.add(ScoreEntry.of(above.get(i)));
+        }
+        entries.add(score);
+        below.forEach(row -> entries.add(ScoreEntry.of(row)));
+        long firstTime = entries.get(0).getCompletionTimeSeconds();
+        int firstRank = difficulty == null
+                ? gameScoreRepository.getPlayerGlobalRank(firstTime)
+                : gameScoreRepository.getPlayerRank(difficulty, firstTime);
+        return new RankWindow(position - above.size(), firstRank, position, (int) total, entries);
+    }
+
+    private ScoreEntry findRankedScore(String playerId) {
+        ScoreEntry entry = scoreRankIndex.isReady() ? scoreRankIndex.findByPlayerId(playerId) : null;
+        if (entry != null) {
+            return entry;
+        }
+        GameScore score = gameScoreRepository.findByPlayerId(playerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Player not found with ID: " + playerId));
+        return ScoreEntry.of(score);
+    }
+
+    // Package-private so the JMH benchmarks under src/jmh can call the converters directly
+    static String formatTime(Long totalSeconds) {
         long hours = totalSeconds / 3600;
         long minutes = (totalSeconds % 3600) / 60;
         long seconds = totalSeconds % 60;
@@ -177,7 +535,19 @@ public class GameScoreService {
         }
     }
 
-    private GameScoreResponse convertToResponse(GameScore score) {
+    GameScoreResponse convertToResponse(ScoreEntry entry) {
+        return new GameScoreResponse(
+                entry.getId(),
+                entry.getPlayerId(),
+                entry.getUsername(),
+                entry.getDifficulty(),
+                entry.getCompletionTimeSeconds(),
+                formatTime(entry.getCompletionTimeSeconds()),
+                entry.getCompletedAt()
+        );
+    }
+
+    GameScoreResponse convertToResponse(GameScore score) {
         return new GameScoreResponse(
                 score.getId(),
                 score.getPlayerId(),
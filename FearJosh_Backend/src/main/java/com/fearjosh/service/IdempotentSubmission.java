@@ -0,0 +1,64 @@
+package com.fearjosh.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fearjosh.dto.GameScoreResponse;
+import com.fearjosh.exception.DuplicateResourceException;
+import com.fearjosh.repository.IdempotencyKeyJdbcRepository;
+import com.fearjosh.repository.IdempotencyRecord;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * Claim, submit and complete of an Idempotency-Key, shared by the single-database and the
+ * sharded path. Must run in one transaction with the submit, on the database holding the keys.
+ */
+final class IdempotentSubmission {
+
+    private IdempotentSubmission() {
+    }
+
+    /**
+     * The first call claims the key and stores its response alongside the score; a retry with
+     * the key replays that response without submitting again. Claims created before
+     * {@code expiredBefore} no longer count.
+     */
+    static GameScoreResponse submitOnce(IdempotencyKeyJdbcRepository keys, ObjectMapper objectMapper,
+                                        String idempotencyKey, String requestFingerprint,
+                                        LocalDateTime expiredBefore, Supplier<GameScoreResponse> submit) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean claimed = keys.claim(idempotencyKey, requestFingerprint, now);
+        if (!claimed && keys.deleteExpired(idempotencyKey, expiredBefore) > 0) {
+            claimed = keys.claim(idempotencyKey, requestFingerprint, now);
+        }
+        if (!claimed) {
+            return replay(keys, objectMapper, idempotencyKey, requestFingerprint);
+        }
+
+        GameScoreResponse response = submit.get();
+        try {
+            keys.complete(idempotencyKey, objectMapper.writeValueAsString(response));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        return response;
+    }
+
+    private static GameScoreResponse replay(IdempotencyKeyJdbcRepository keys, ObjectMapper objectMapper,
+                                            String idempotencyKey, String requestFingerprint) {
+        IdempotencyRecord stored = keys.find(idempotencyKey)
+                .filter(record -> record.getResponse() != null)
+                .orElseThrow(() -> new DuplicateResourceException(
+                        "A submission with this Idempotency-Key is still being processed"));
+        if (!stored.getRequestFingerprint().equals(requestFingerprint)) {
+            throw new DuplicateResourceException("Idempotency-Key was already used for a different submission");
+        }
+        try {
+            return objectMapper.readValue(stored.getResponse(), GameScoreResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.fearjosh.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fearjosh.dto.ApiResponse;
+import com.fearjosh.dto.GameScoreResponse;
+import com.fearjosh.dto.LeaderboardResponse;
+import com.fearjosh.metrics.ScoreMetrics;
+import com.fearjosh.model.Difficulty;
+import com.fearjosh.ranking.ScoreChangedEvent;
+import com.fearjosh.ranking.ScoreEntry;
+import com.fearjosh.ranking.ScoreRankIndex;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caches the top-N entries of each leaderboard keyed by (board, limit). A board is only
+ * invalidated when a score change lands in, or leaves, the largest top-N cached for it;
+ * totalPlayers is read live from the rank index so new players below the cut stay cheap.
+ *
+ * Each cached view also keeps its response body serialized and gzip-compressed for the current
+ * ETag, so a hit costs no mapping, serialization or compression; the bytes are re-rendered only
+ * when the top-N or totalPlayers changes.
+ *
+ * The ETag is derived from the cached entries and totalPlayers rather than the invalidation
+ * counter, so it survives restarts and every instance behind a load balancer hands out the same
+ * ETag for the same board.
+ *
+ * A cache fill always reads the primary, in its own read-write transaction. The invalidation
+ * comes from a commit on the primary, so a fill from a lagging read replica would cache the old
+ * top-N under the new version and serve it until the board changed again.
+ */
+@Component
+public class LeaderboardCache {
+
+    public static final String GLOBAL_BOARD = "ALL";
+
+    @Autowired
+    private ScoreRankIndex scoreRankIndex;
+
+    @Autowired
+    private ScoreMetrics scoreMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${fearjosh.leaderboard.cache.max-limit:100}")
+    private int maxCachedLimit;
+
+    @Value("${fearjosh.leaderboard.cache.serialized:true}")
+    private boolean serialized;
+
+    private final Map<String, Board> boards = new ConcurrentHashMap<>();
+    private TransactionTemplate primaryRead;
+
+    private static final class Board {
+        final AtomicLong version = new AtomicLong();
+        final AtomicInteger maxLimit = new AtomicInteger();
+        final Map<Integer, Snapshot> byLimit = new ConcurrentHashMap<>();
+    }
+
+    private static final class Snapshot {
+        final long version;
+        final List<GameScoreResponse> leaderboard;
+        final String contentHash;
+        volatile LeaderboardPayload payload;
+
+        Snapshot(long version, List<GameScoreResponse> leaderboard, String contentHash) {
+            this.version = version;
+            this.leaderboard = leaderboard;
+            this.contentHash = contentHash;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        primaryRead = new TransactionTemplate(transactionManager);
+        primaryRead.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public CachedLeaderboard get(String board, int limit, Supplier<LeaderboardResponse> loader) {
+        if (!scoreRankIndex.isReady() || limit > maxCachedLimit || !isCacheable(board)) {
+            scoreMetrics.cacheBypass(board);
+            return new CachedLeaderboard(loader.get(), null, null);
+        }
+
+        Board state = boards.computeIfAbsent(board, b -> new Board());
+        long version = state.version.get();
+        Snapshot snapshot = state.byLimit.get(limit);
+        if (snapshot != null && snapshot.version == version) {
+            scoreMetrics.cacheHit(board);
+        } else {
+            scoreMetrics.cacheMiss(board);
+            // Widen the watched range before loading so a change racing with the load invalidates it
+            state.maxLimit.accumulateAndGet(limit, Math::max);
+            List<GameScoreResponse> leaderboard = List.copyOf(primaryRead.execute(status -> loader.get()).getLeaderboard());
+            snapshot = new Snapshot(version, leaderboard, contentHash(leaderboard));
+            if (state.version.get() == version) {
+                state.byLimit.put(limit, snapshot);
+            }
+        }
+
+        int totalPlayers = GLOBAL_BOARD.equals(board)
+                ? scoreRankIndex.count()
+                : scoreRankIndex.countByDifficulty(board);
+        String etag = "\"" + board + "-" + limit + "-" + snapshot.contentHash + "-" + totalPlayers + "\"";
+        LeaderboardResponse response = new LeaderboardResponse(board, totalPlayers, snapshot.leaderboard);
+        LeaderboardPayload payload = null;
+        if (serialized) {
+            payload = snapshot.payload;
+            if (payload == null || !payload.getEtag().equals(etag)) {
+                payload = render(etag, response);
+                snapshot.payload = payload;
+            }
+        }
+        return new CachedLeaderboard(response, etag, payload);
+    }
+
+    @EventListener
+    public void onScoreChanged(ScoreChangedEvent event) {
+        invalidateIfTopChanged(GLOBAL_BOARD, null, event.getPrevious());
+        invalidateIfTopChanged(GLOBAL_BOARD, null, event.getCurrent());
+        if (event.getPrevious() != null) {
+            String difficulty = event.getPrevious().getDifficulty();
+            invalidateIfTopChanged(difficulty, difficulty, event.getPrevious());
+        }
+        if (event.getCurrent() != null) {
+            String difficulty = event.getCurrent().getDifficulty();
+            invalidateIfTopChanged(difficulty, difficulty, event.getCurrent());
+        }
+    }
+
+    private void invalidateIfTopChanged(String board, String difficulty, ScoreEntry entry) {
+        Board state = boards.get(board);
+        if (entry == null || state == null) {
+            return;
+        }
+        if (scoreRankIndex.positionOf(difficulty, entry) < state.maxLimit.get()) {
+            state.version.incrementAndGet();
+            state.byLimit.clear();
+        }
+    }
+
+    // Computed once per cache fill; the first 64 bits of SHA-256 are plenty to tell top-N lists apart
+    private String contentHash(List<GameScoreResponse> leaderboard) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(leaderboard));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Rendered once per view change, so the slower, smaller compression level pays off
+    private LeaderboardPayload render(String etag, LeaderboardResponse response) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(ApiResponse.success(response));
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            }) {
+                gzip.write(json);
+            }
+            return new LeaderboardPayload(etag, json, compressed.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isCacheable(String board) {
+        if (GLOBAL_BOARD.equals(board)) {
+            return true;
+        }
+        for (Difficulty difficulty : Difficulty.values()) {
+            if (difficulty.name().equals(board)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
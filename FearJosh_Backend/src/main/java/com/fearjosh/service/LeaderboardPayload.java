@@ -0,0 +1,17 @@
+package com.fearjosh.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * A leaderboard view's full JSON response body, plain and gzip-compressed, for the ETag it was
+ * rendered for. Built once per change of the view and written as-is to every request for it.
+ */
+@Value
+@AllArgsConstructor
+public class LeaderboardPayload {
+
+    String etag;
+    byte[] json;
+    byte[] gzip;
+}
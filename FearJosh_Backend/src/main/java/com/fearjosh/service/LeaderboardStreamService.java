@@ -0,0 +1,268 @@
+package com.fearjosh.service;
+
+import com.fearjosh.dto.GameScoreResponse;
+import com.fearjosh.dto.LeaderboardDiff;
+import com.fearjosh.dto.LeaderboardResponse;
+import com.fearjosh.exception.InvalidRequestException;
+import com.fearjosh.ranking.ScoreChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes live top-N diffs over Server-Sent Events. Score changes only mark their boards dirty;
+ * a scheduled tick then sends at most one diff per (board, limit), however many submits landed.
+ *
+ * Subscribing and publishing hold the channel's lock, so every subscriber of a channel has been
+ * queued exactly lastSent: a new subscriber's snapshot is the state the next diff starts from.
+ * Only the queueing happens under the lock. Each subscriber drains its own queue on a sender
+ * thread, so a slow client never holds up the tick or other subscribers; one that falls
+ * max-pending events behind, or whose send stalls past send-timeout-ms, is dropped.
+ */
+@Slf4j
+@Service
+public class LeaderboardStreamService {
+
+    @Autowired
+    private GameScoreService gameScoreService;
+
+    @Value("${fearjosh.leaderboard.stream.timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${fearjosh.leaderboard.stream.max-pending:16}")
+    private int maxPending;
+
+    @Value("${fearjosh.leaderboard.stream.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    @Value("${fearjosh.leaderboard.cache.max-limit:100}")
+    private int maxLimit;
+
+    private final Map<String, Map<Integer, Channel>> channels = new ConcurrentHashMap<>();
+    private final Set<String> dirtyBoards = ConcurrentHashMap.newKeySet();
+
+    // Grows with the subscribers that have events in flight; a stalled send ties up only its own thread
+    private final ExecutorService senders = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "sse-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final class Channel {
+        final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+        // Guarded by the channel
+        LeaderboardResponse lastSent;
+    }
+
+    private final class Subscriber {
+        final SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        final Channel channel;
+        final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        final AtomicInteger pendingCount = new AtomicInteger();
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean dropped;
+        // System.nanoTime() when the send in flight started, 0 when idle
+        volatile long sendingSince;
+
+        Subscriber(Channel channel) {
+            this.channel = channel;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (pendingCount.incrementAndGet() > maxPending) {
+                drop("fell " + maxPending + " events behind");
+                return;
+            }
+            pending.add(event);
+            schedule();
+        }
+
+        void drop(String reason) {
+            if (dropped) {
+                return;
+            }
+            dropped = true;
+            channel.subscribers.remove(this);
+            log.debug("Dropped leaderboard stream subscriber: {}", reason);
+            // Completing takes the emitter's lock, which a stalled send holds; leave it to the sender
+            schedule();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while (!dropped && (event = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    sendingSince = System.nanoTime();
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        drop(String.valueOf(e.getMessage()));
+                    } finally {
+                        sendingSince = 0;
+                    }
+                }
+                if (dropped) {
+                    // Leaves draining set, so nothing is scheduled for this subscriber again
+                    pending.clear();
+                    emitter.complete();
+                    return;
+                }
+                draining.set(false);
+            } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        boolean stalled(long now) {
+            long since = sendingSince;
+            return since != 0 && now - since > TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        }
+    }
+
+    public SseEmitter subscribe(String board, int limit) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new InvalidRequestException("Limit must be between 1 and " + maxLimit);
+        }
+        Channel channel = channels.computeIfAbsent(board, b -> new ConcurrentHashMap<>())
+                .computeIfAbsent(limit, l -> new Channel());
+
+        Subscriber subscriber = new Subscriber(channel);
+        SseEmitter emitter = subscriber.emitter;
+        emitter.onCompletion(() -> channel.subscribers.remove(subscriber));
+        emitter.onTimeout(() -> channel.subscribers.remove(subscriber));
+        emitter.onError(e -> channel.subscribers.remove(subscriber));
+
+        synchronized (channel) {
+            // Brings the existing subscribers up to the state the snapshot shows
+            LeaderboardResponse snapshot = publish(board, limit, channel);
+            channel.subscribers.add(subscriber);
+            subscriber.offer(SseEmitter.event().name("snapshot").data(snapshot));
+        }
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    @EventListener
+    public void onScoreChanged(ScoreChangedEvent event) {
+        dirtyBoards.add(LeaderboardCache.GLOBAL_BOARD);
+        if (event.getPrevious() != null) {
+            dirtyBoards.add(event.getPrevious().getDifficulty());
+        }
+        if (event.getCurrent() != null) {
+            dirtyBoards.add(event.getCurrent().getDifficulty());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${fearjosh.leaderboard.stream.tick-ms:500}")
+    public void publishDiffs() {
+        dropStalled();
+        if (dirtyBoards.isEmpty()) {
+            return;
+        }
+        List<String> boards = new ArrayList<>(dirtyBoards);
+        dirtyBoards.removeAll(boards);
+
+        for (String board : boards) {
+            Map<Integer, Channel> byLimit = channels.get(board);
+            if (byLimit == null) {
+                continue;
+            }
+            byLimit.forEach((limit, channel) -> {
+                synchronized (channel) {
+                    if (!channel.subscribers.isEmpty()) {
+                        publish(board, limit, channel);
+                    }
+                }
+            });
+        }
+    }
+
+    private void dropStalled() {
+        long now = System.nanoTime();
+        channels.values().forEach(byLimit -> byLimit.values().forEach(channel -> {
+            for (Subscriber subscriber : channel.subscribers) {
+                if (subscriber.stalled(now)) {
+                    subscriber.drop("send stalled for over " + sendTimeoutMs + " ms");
+                }
+            }
+        }));
+    }
+
+    // Queues the diff from lastSent to the current board, if any, and returns the current board
+    private LeaderboardResponse publish(String board, int limit, Channel channel) {
+        LeaderboardResponse current = load(board, limit);
+        LeaderboardResponse previous = channel.lastSent;
+        channel.lastSent = current;
+        if (previous == null || channel.subscribers.isEmpty()) {
+            return current;
+        }
+        LeaderboardDiff diff = diff(board, previous.getLeaderboard(), current);
+        if (diff.getChanged().isEmpty() && diff.getRemovedPlayerIds().isEmpty()
+                && previous.getTotalPlayers() == current.getTotalPlayers()) {
+            return current;
+        }
+        for (Subscriber subscriber : channel.subscribers) {
+            subscriber.offer(SseEmitter.event().name("diff").data(diff));
+        }
+        return current;
+    }
+
+    private LeaderboardResponse load(String board, int limit) {
+        String difficulty = LeaderboardCache.GLOBAL_BOARD.equals(board) ? null : board;
+        return gameScoreService.getCachedLeaderboard(difficulty, limit).getLeaderboard();
+    }
+
+    private static LeaderboardDiff diff(String board, List<GameScoreResponse> previous, LeaderboardResponse current) {
+        Map<String, GameScoreResponse> before = new HashMap<>();
+        previous.forEach(score -> before.put(score.getPlayerId(), score));
+
+        List<GameScoreResponse> changed = new ArrayList<>();
+        for (GameScoreResponse score : current.getLeaderboard()) {
+            GameScoreResponse old = before.remove(score.getPlayerId());
+            if (old == null
+                    || !Objects.equals(old.getRank(), score.getRank())
+                    || !Objects.equals(old.getCompletionTimeSeconds(), score.getCompletionTimeSeconds())
+                    || !Objects.equals(old.getDifficulty(), score.getDifficulty())
+                    || !Objects.equals(old.getUsername(), score.getUsername())) {
+                changed.add(score);
+            }
+        }
+        return new LeaderboardDiff(board, current.getTotalPlayers(), changed, new ArrayList<>(before.keySet()));
+    }
+}
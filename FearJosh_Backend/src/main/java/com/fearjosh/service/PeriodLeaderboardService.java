@@ -0,0 +1,214 @@
+package com.fearjosh.service;
+
+import com.fearjosh.model.GameScore;
+import com.fearjosh.model.LeaderboardPeriod;
+import com.fearjosh.ranking.RankBoard;
+import com.fearjosh.ranking.RankTree;
+import com.fearjosh.ranking.ScoreEntry;
+import com.fearjosh.repository.PeriodScore;
+import com.fearjosh.repository.PeriodScoreJdbcRepository;
+import com.fearjosh.transaction.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Daily, weekly and seasonal leaderboards. Every submission is upserted into the current window
+ * of each period in the caller's transaction; the current windows are also held in memory as
+ * {@link RankBoard}s, so reading them costs the same as reading the all-time board. Ended windows
+ * are compacted into a fixed-size archive by a scheduled job.
+ */
+@Slf4j
+@Service
+public class PeriodLeaderboardService {
+
+    @Autowired
+    private PeriodScoreJdbcRepository periodScoreJdbcRepository;
+
+    @Value("${fearjosh.leaderboard.periods.archive-size:100}")
+    private int archiveSize;
+
+    @Value("${fearjosh.leaderboard.periods.compaction-grace-minutes:5}")
+    private long compactionGraceMinutes;
+
+    private final Clock clock = Clock.systemUTC();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<LeaderboardPeriod, Window> current = new EnumMap<>(LeaderboardPeriod.class);
+
+    private static final class Window {
+        final String key;
+        final LocalDateTime endsAt;
+        final RankBoard board = new RankBoard();
+
+        Window(String key, LocalDateTime endsAt) {
+            this.key = key;
+            this.endsAt = endsAt;
+        }
+    }
+
+    /**
+     * Upserts the candidates (distinct players) into the current window of every period. Players
+     * whose held entry is already at least as good are skipped without a database round trip.
+     */
+    public void record(Collection<GameScore> candidates) {
+        record(List.of(), candidates);
+    }
+
+    /**
+     * Same for a coalesced batch: the bridges are written first, then the finals, so a difficulty
+     * change inside the batch leaves each window as sequential submits would. A bridged player's
+     * final is never skipped, as the held entry does not reflect the bridge yet.
+     */
+    public void record(Collection<GameScore> bridges, Collection<GameScore> finals) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        Set<String> bridged = bridges.stream().map(GameScore::getPlayerId).collect(Collectors.toSet());
+        List<PeriodScore> changed = new ArrayList<>(
+                periodScoreJdbcRepository.upsertBestBatch(windowWrites(bridges, Set.of(), now)));
+        changed.addAll(periodScoreJdbcRepository.upsertBestBatch(windowWrites(finals, bridged, now)));
+        if (!changed.isEmpty()) {
+            AfterCommit.run(() -> apply(changed));
+        }
+    }
+
+    public void remove(String playerId) {
+        periodScoreJdbcRepository.deleteByPlayerId(playerId);
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                current.values().forEach(window -> window.board.remove(playerId));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Top {@code limit} of a window, for one difficulty or all (null). A null or current key is
+     * served from memory; earlier windows come from the database, or the archive once compacted.
+     */
+    public PeriodStanding getStanding(LeaderboardPeriod period, String difficulty, String periodKey, int limit) {
+        Window window = currentWindow(period, LocalDate.now(clock));
+        if (periodKey == null || periodKey.equals(window.key)) {
+            lock.readLock().lock();
+            try {
+                RankTree tree = window.board.tree(difficulty);
+                return tree == null
+                        ? new PeriodStanding(period, window.key, false, 0, List.of())
+                        : new PeriodStanding(period, window.key, false, tree.size(), tree.range(0, limit));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int live = periodScoreJdbcRepository.count(period, periodKey, difficulty);
+        if (live > 0) {
+            return new PeriodStanding(period, periodKey, false, live,
+                    periodScoreJdbcRepository.findTop(period, periodKey, difficulty, limit));
+        }
+        return new PeriodStanding(period, periodKey, true,
+                periodScoreJdbcRepository.countArchived(period, periodKey, difficulty),
+                periodScoreJdbcRepository.findArchived(period, periodKey, difficulty, limit));
+    }
+
+    // The grace period lets submissions that started before the window ended finish committing
+    @Scheduled(cron = "${fearjosh.leaderboard.periods.compaction-cron:0 */15 * * * *}")
+    public void compactEndedWindows() {
+        LocalDateTime cutoff = LocalDateTime.now(clock).minusMinutes(compactionGraceMinutes);
+        for (PeriodScore window : periodScoreJdbcRepository.findEndedWindows(cutoff)) {
+            try {
+                int removed = periodScoreJdbcRepository.compactWindow(window.getPeriod(), window.getPeriodKey(), archiveSize);
+                log.info("Compacted {} window {}: {} scores archived down to the top {}",
+                        window.getPeriod(), window.getPeriodKey(), removed, archiveSize);
+            } catch (RuntimeException e) {
+                // Another instance may have compacted the same window first
+                log.warn("Could not compact {} window {}: {}", window.getPeriod(), window.getPeriodKey(), e.getMessage());
+            }
+        }
+    }
+
+    // Loads the window of the given date on first use after it starts; the previous one is dropped
+    private Window currentWindow(LeaderboardPeriod period, LocalDate today) {
+        String key = period.keyOf(today);
+        lock.readLock().lock();
+        try {
+            Window window = current.get(period);
+            if (window != null && window.key.equals(key)) {
+                return window;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            Window window = current.get(period);
+            if (window == null || !window.key.equals(key)) {
+                window = new Window(key, period.endOf(today));
+                for (PeriodScore row : periodScoreJdbcRepository.findWindow(period, key)) {
+                    window.board.put(row.getScore());
+                }
+                current.put(period, window);
+            }
+            return window;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<PeriodScore> windowWrites(Collection<GameScore> candidates, Set<String> unskippable, LocalDateTime now) {
+        List<PeriodScore> writes = new ArrayList<>();
+        if (candidates.isEmpty()) {
+            return writes;
+        }
+        for (LeaderboardPeriod period : LeaderboardPeriod.values()) {
+            Window window = currentWindow(period, now.toLocalDate());
+            lock.readLock().lock();
+            try {
+                for (GameScore candidate : candidates) {
+                    ScoreEntry held = window.board.get(candidate.getPlayerId());
+                    if (held != null && !unskippable.contains(candidate.getPlayerId())
+                            && held.getDifficulty().equals(candidate.getDifficulty())
+                            && held.getCompletionTimeSeconds() <= candidate.getCompletionTimeSeconds()) {
+                        continue;
+                    }
+                    writes.add(new PeriodScore(period, window.key, window.endsAt, new ScoreEntry(null,
+                            candidate.getPlayerId(), candidate.getUsername(), candidate.getDifficulty(),
+                            candidate.getCompletionTimeSeconds(), now)));
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        return writes;
+    }
+
+    // Applied in write order, so a bridged player ends on the final row
+    private void apply(List<PeriodScore> changed) {
+        lock.writeLock().lock();
+        try {
+            for (PeriodScore row : changed) {
+                Window window = current.get(row.getPeriod());
+                if (window != null && window.key.equals(row.getPeriodKey())) {
+                    window.board.put(row.getScore());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
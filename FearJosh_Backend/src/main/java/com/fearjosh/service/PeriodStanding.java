@@ -0,0 +1,22 @@
+package com.fearjosh.service;
+
+import com.fearjosh.model.LeaderboardPeriod;
+import com.fearjosh.ranking.ScoreEntry;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Top of one window of a period leaderboard; {@code archived} when read from the compacted archive.
+ */
+@Value
+@AllArgsConstructor
+public class PeriodStanding {
+
+    LeaderboardPeriod period;
+    String periodKey;
+    boolean archived;
+    int totalPlayers;
+    List<ScoreEntry> entries;
+}
@@ -0,0 +1,42 @@
+package com.fearjosh.service;
+
+import com.fearjosh.dto.GameScoreRequest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collapses several submissions for the same player into what submitScore would have kept had
+ * they been applied in order: a faster time on the same difficulty, or any time on a new one.
+ *
+ * The stored row is not known here, so one winner per player is not enough: with a stored
+ * NORMAL 50, the submissions HARD 500 then NORMAL 200 end at NORMAL 200, but the conditional
+ * upsert of NORMAL 200 alone keeps NORMAL 50. Writing the best of the previous difficulty first
+ * (a bridge) always leaves a row of another difficulty, so the final write then always lands.
+ */
+public final class ScoreCoalescer {
+
+    private ScoreCoalescer() {
+    }
+
+    public static GameScoreRequest merge(GameScoreRequest current, GameScoreRequest incoming) {
+        if (current == null || !current.getDifficulty().equals(incoming.getDifficulty())) {
+            return incoming;
+        }
+        return incoming.getCompletionTimeSeconds() < current.getCompletionTimeSeconds() ? incoming : current;
+    }
+
+    public static CoalescedSubmissions coalesce(Iterable<GameScoreRequest> requests) {
+        Map<String, GameScoreRequest> bridges = new LinkedHashMap<>();
+        Map<String, GameScoreRequest> finals = new LinkedHashMap<>();
+        for (GameScoreRequest request : requests) {
+            GameScoreRequest current = finals.get(request.getPlayerId());
+            if (current != null && !current.getDifficulty().equals(request.getDifficulty())) {
+                bridges.put(request.getPlayerId(), current);
+            }
+            finals.put(request.getPlayerId(), merge(current, request));
+        }
+        return new CoalescedSubmissions(new ArrayList<>(bridges.values()), new ArrayList<>(finals.values()));
+    }
+}
@@ -0,0 +1,45 @@
+package com.fearjosh.service;
+
+import com.fearjosh.exception.InvalidRequestException;
+import com.fearjosh.model.GameScore;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the (completionTimeSeconds, id) of the last row served and the
+ * number of rows served so far, so ranks keep counting across pages.
+ */
+@Value
+@AllArgsConstructor
+public class ScoreCursor {
+
+    public static final ScoreCursor FIRST = new ScoreCursor(Long.MIN_VALUE, Long.MIN_VALUE, 0);
+
+    long completionTimeSeconds;
+    long id;
+    int position;
+
+    public static ScoreCursor after(GameScore last, int position) {
+        return new ScoreCursor(last.getCompletionTimeSeconds(), last.getId(), position);
+    }
+
+    public static ScoreCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return FIRST;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            return new ScoreCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Integer.parseInt(parts[2]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public String encode() {
+        String raw = completionTimeSeconds + ":" + id + ":" + position;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,226 @@
+package com.fearjosh.service;
+
+import com.fearjosh.dto.GameScoreRequest;
+import com.fearjosh.dto.SubmissionAckResponse;
+import com.fearjosh.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Optional write-behind mode for POST /scores. Submissions are queued and a single writer
+ * coalesces them per player and flushes them through GameScoreService.submitScoreBatch
+ * every flush interval or once a batch is full, whichever comes first. In sharded mode the
+ * batches go to ShardedLeaderboardService.submitScores instead.
+ *
+ * A failed flush is retried with exponential backoff; once the attempts are used up the batch is
+ * submitted item by item, and items that still fail are logged and counted as dead letters
+ * (fearjosh.ingestion.dead_letter), as their clients were already answered with 202.
+ */
+@Slf4j
+@Service
+public class ScoreIngestionService {
+
+    @Autowired
+    private GameScoreService gameScoreService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Only present in sharded mode
+    @Autowired(required = false)
+    private ShardedLeaderboardService shardedLeaderboardService;
+
+    @Value("${fearjosh.ingestion.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${fearjosh.ingestion.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${fearjosh.ingestion.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${fearjosh.ingestion.write-behind.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${fearjosh.ingestion.write-behind.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${fearjosh.ingestion.write-behind.retry-backoff-ms:100}")
+    private long retryBackoffMs;
+
+    private static final long MAX_RETRY_BACKOFF_MS = 5000;
+
+    private BlockingQueue<GameScoreRequest> queue;
+    private Thread writer;
+    private Counter deadLetters;
+    private volatile boolean running;
+    // Offers hold the read lock, so once stop() has taken the write lock no offer can land after the final drain
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+    private boolean accepting;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        deadLetters = Counter.builder("fearjosh.ingestion.dead_letter")
+                .description("Accepted write-behind submissions that could not be stored")
+                .register(meterRegistry);
+        accepting = true;
+        running = true;
+        writer = new Thread(this::runWriter, "score-ingestion-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Write-behind score ingestion enabled (capacity={}, batchSize={}, flushIntervalMs={})",
+                queueCapacity, batchSize, flushIntervalMs);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        acceptLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        // The writer notices within one flush interval and drains the queue before exiting
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        if (writer.isAlive()) {
+            log.error("Write-behind writer did not finish within 30 s; {} queued submissions were not stored", queue.size());
+            deadLetters.increment(queue.size());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public SubmissionAckResponse enqueue(GameScoreRequest request) {
+        acceptLock.readLock().lock();
+        try {
+            if (!accepting) {
+                throw new TooManyRequestsException("Score ingestion is shutting down, please retry shortly");
+            }
+            if (!queue.offer(request)) {
+                throw new TooManyRequestsException("Score ingestion queue is full, please retry shortly");
+            }
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+        return new SubmissionAckResponse(request.getPlayerId(), queue.size(), queueCapacity);
+    }
+
+    private void runWriter() {
+        List<GameScoreRequest> buffer = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                GameScoreRequest first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                buffer.add(first);
+                fillBatch(buffer);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            flush(buffer);
+        }
+        queue.drainTo(buffer);
+        while (!buffer.isEmpty()) {
+            List<GameScoreRequest> chunk = new ArrayList<>(buffer.subList(0, Math.min(batchSize, buffer.size())));
+            buffer.subList(0, chunk.size()).clear();
+            flush(chunk);
+        }
+    }
+
+    private void fillBatch(List<GameScoreRequest> buffer) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (buffer.size() < batchSize) {
+            queue.drainTo(buffer, batchSize - buffer.size());
+            long remaining = deadline - System.nanoTime();
+            if (buffer.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            GameScoreRequest next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            buffer.add(next);
+        }
+    }
+
+    private void flush(List<GameScoreRequest> buffer) {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        try {
+            long backoffMs = retryBackoffMs;
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    submitBatch(buffer);
+                    log.debug("Flushed {} queued submissions", buffer.size());
+                    return;
+                } catch (RuntimeException e) {
+                    if (attempt >= maxAttempts) {
+                        log.error("Failed to flush {} queued submissions after {} attempts, submitting them one by one",
+                                buffer.size(), attempt, e);
+                        break;
+                    }
+                    log.warn("Failed to flush {} queued submissions (attempt {}), retrying in {} ms: {}",
+                            buffer.size(), attempt, backoffMs, e.getMessage());
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(backoffMs);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                    backoffMs = Math.min(backoffMs * 2, MAX_RETRY_BACKOFF_MS);
+                }
+            }
+            // A single bad submission must not take the rest of the batch with it
+            for (GameScoreRequest request : buffer) {
+                try {
+                    if (shardedLeaderboardService != null) {
+                        shardedLeaderboardService.submitScore(request);
+                    } else {
+                        gameScoreService.submitScore(request);
+                    }
+                } catch (RuntimeException e) {
+                    deadLetters.increment();
+                    log.error("Dropped queued submission for player {} ({} {} s): {}", request.getPlayerId(),
+                            request.getDifficulty(), request.getCompletionTimeSeconds(), e.getMessage());
+                }
+            }
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    private void submitBatch(List<GameScoreRequest> buffer) {
+        if (shardedLeaderboardService != null) {
+            shardedLeaderboardService.submitScores(buffer);
+        } else {
+            gameScoreService.submitScoreBatch(buffer);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.fearjosh.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fearjosh.dto.BulkScoreResponse;
+import com.fearjosh.dto.BulkScoreResult;
+import com.fearjosh.dto.GameScoreRequest;
+import com.fearjosh.dto.GameScoreResponse;
+import com.fearjosh.dto.LeaderboardResponse;
+import com.fearjosh.dto.PlayerRankResponse;
+import com.fearjosh.exception.ResourceNotFoundException;
+import com.fearjosh.exception.ShardUnavailableException;
+import com.fearjosh.model.GameScore;
+import com.fearjosh.shard.ConsistentHashRing;
+import com.fearjosh.shard.ScoreShard;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Sharded mode (fearjosh.sharding.enabled=true): players are spread over N databases by
+ * consistent hashing of playerId. A player's own reads and writes touch one shard; top-N
+ * asks every shard for its top N in parallel and merges the sorted lists, and a rank sums the
+ * per-shard counts of faster players, so both stay exact.
+ *
+ * Bulk and Idempotency-Key submissions run in a transaction on the player's shard, whose
+ * submission_idempotency_keys table holds the keys of that shard's players. A bulk request that
+ * spans shards commits shard by shard.
+ */
+@Slf4j
+public class ShardedLeaderboardService implements AutoCloseable {
+
+    // The order findTop returns within a shard; ids repeat across shards, so playerId settles those
+    private static final Comparator<GameScore> LEADERBOARD_ORDER = Comparator
+            .comparing(GameScore::getCompletionTimeSeconds)
+            .thenComparing(GameScore::getId)
+            .thenComparing(GameScore::getPlayerId);
+
+    private final List<ScoreShard> shards;
+    private final ConsistentHashRing<ScoreShard> ring;
+    private final ExecutorService executor;
+    private final long timeoutMs;
+    private final ObjectMapper objectMapper;
+
+    public ShardedLeaderboardService(List<ScoreShard> shards, int virtualNodes, long timeoutMs,
+                                     ObjectMapper objectMapper) {
+        Map<String, ScoreShard> byName = new LinkedHashMap<>();
+        shards.forEach(shard -> byName.put(shard.getName(), shard));
+        this.shards = List.copyOf(shards);
+        this.ring = new ConsistentHashRing<>(byName, virtualNodes);
+        this.executor = Executors.newFixedThreadPool(shards.size() * 2, runnable -> {
+            Thread thread = new Thread(runnable, "shard-scatter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timeoutMs = timeoutMs;
+        this.objectMapper = objectMapper;
+        log.info("Sharded leaderboard over {} shards: {}", shards.size(), byName.keySet());
+    }
+
+    public List<ScoreShard> getShards() {
+        return shards;
+    }
+
+    public ScoreShard shardFor(String playerId) {
+        return ring.nodeFor(playerId);
+    }
+
+    public GameScoreResponse submitScore(GameScoreRequest request) {
+        GameScore candidate = BulkSubmission.toCandidate(request);
+        return convertToResponse(shardFor(request.getPlayerId()).getRepository().upsertBest(candidate).getScore());
+    }
+
+    // As GameScoreService.submitScoreOnce, with the key claimed on the player's shard
+    public GameScoreResponse submitScoreOnce(String idempotencyKey, String requestFingerprint,
+                                             GameScoreRequest request, LocalDateTime expiredBefore) {
+        ScoreShard shard = shardFor(request.getPlayerId());
+        return shard.getTransactionTemplate().execute(status -> IdempotentSubmission.submitOnce(
+                shard.getIdempotencyKeys(), objectMapper, idempotencyKey, requestFingerprint, expiredBefore,
+                () -> submitScore(request)));
+    }
+
+    // As GameScoreService.submitScores, one transaction per shard touched
+    public BulkScoreResponse submitScores(List<GameScoreRequest> requests) {
+        Map<ScoreShard, List<Integer>> indexesByShard = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            indexesByShard.computeIfAbsent(shardFor(requests.get(i).getPlayerId()), shard -> new ArrayList<>()).add(i);
+        }
+
+        BulkScoreResult[] results = new BulkScoreResult[requests.size()];
+        indexesByShard.forEach((shard, indexes) -> {
+            List<GameScoreRequest> items = new ArrayList<>(indexes.size());
+            indexes.forEach(i -> items.add(requests.get(i)));
+            List<BulkScoreResult> shardResults = shard.getTransactionTemplate().execute(status ->
+                    BulkSubmission.apply(shard.getRepository(), items, ShardedLeaderboardService::convertToResponse,
+                            changed -> { }));
+            for (BulkScoreResult result : shardResults) {
+                result.setIndex(indexes.get(result.getIndex()));
+                results[result.getIndex()] = result;
+            }
+        });
+        return BulkSubmission.summarize(Arrays.asList(results));
+    }
+
+    public int purgeIdempotencyKeys(LocalDateTime olderThan) {
+        return shards.stream().mapToInt(shard -> shard.getIdempotencyKeys().deleteOlderThan(olderThan)).sum();
+    }
+
+    public GameScoreResponse getScoreByPlayerId(String playerId) {
+        return convertToResponse(findScore(playerId));
+    }
+
+    public boolean playerExists(String playerId) {
+        return !shardFor(playerId).getRepository().findByPlayerIds(List.of(playerId)).isEmpty();
+    }
+
+    public void deleteScore(String playerId) {
+        if (!shardFor(playerId).getRepository().deleteByPlayerId(playerId)) {
+            throw new ResourceNotFoundException("Player not found with ID: " + playerId);
+        }
+    }
+
+    // Top of one difficulty, or of all (null): each shard's top N, k-way merged
+    public LeaderboardResponse getLeaderboard(String difficulty, int limit) {
+        List<List<GameScore>> tops = scatter(shard -> shard.getRepository().findTop(difficulty, limit));
+        long totalPlayers = sum(scatter(shard -> shard.getRepository().count(difficulty)));
+
+        List<GameScoreResponse> leaderboard = new ArrayList<>();
+        for (GameScore score : merge(tops, limit)) {
+            GameScoreResponse response = convertToResponse(score);
+            response.setRank(leaderboard.size() + 1);
+            leaderboard.add(response);
+        }
+        return new LeaderboardResponse(difficulty != null ? difficulty : "ALL", (int) totalPlayers, leaderboard);
+    }
+
+    public PlayerRankResponse getPlayerRank(String playerId) {
+        return rank(findScore(playerId), false);
+    }
+
+    public PlayerRankResponse getPlayerGlobalRank(String playerId) {
+        return rank(findScore(playerId), true);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        shards.forEach(ScoreShard::close);
+    }
+
+    private PlayerRankResponse rank(GameScore score, boolean global) {
+        String difficulty = global ? null : score.getDifficulty();
+        long faster = sum(scatter(shard -> shard.getRepository().countFaster(difficulty, score.getCompletionTimeSeconds())));
+        long totalPlayers = sum(scatter(shard -> shard.getRepository().count(difficulty)));
+        return new PlayerRankResponse(
+                score.getPlayerId(),
+                score.getUsername(),
+                global ? "ALL" : score.getDifficulty(),
+                score.getCompletionTimeSeconds(),
+                score.getCompletionTimeFormatted(),
+                (int) faster + 1,
+                (int) totalPlayers
+        );
+    }
+
+    private GameScore findScore(String playerId) {
+        List<GameScore> rows = shardFor(playerId).getRepository().findByPlayerIds(List.of(playerId));
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Player not found with ID: " + playerId);
+        }
+        return rows.get(0);
+    }
+
+    // Runs the query on every shard in parallel; one slow or failed shard fails the whole call
+    private <T> List<T> scatter(Function<ScoreShard, T> query) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (ScoreShard shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(shard), executor));
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        List<T> results = new ArrayList<>(shards.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(future -> future.cancel(true));
+                throw new ShardUnavailableException("Interrupted while querying shards", e);
+            } catch (ExecutionException | TimeoutException e) {
+                futures.forEach(future -> future.cancel(true));
+                throw new ShardUnavailableException("Shard " + shards.get(i).getName() + " did not answer", e);
+            }
+        }
+        return results;
+    }
+
+    // Each list is already in leaderboard order, so the merge only looks at one head per shard
+    static List<GameScore> merge(List<List<GameScore>> sortedLists, int limit) {
+        PriorityQueue<int[]> heads = new PriorityQueue<>((a, b) ->
+                LEADERBOARD_ORDER.compare(sortedLists.get(a[0]).get(a[1]), sortedLists.get(b[0]).get(b[1])));
+        for (int i = 0; i < sortedLists.size(); i++) {
+            if (!sortedLists.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+        List<GameScore> merged = new ArrayList<>(limit);
+        while (merged.size() < limit && !heads.isEmpty()) {
+            int[] head = heads.poll();
+            List<GameScore> list = sortedLists.get(head[0]);
+            merged.add(list.get(head[1]));
+            if (head[1] + 1 < list.size()) {
+                heads.add(new int[]{head[0], head[1] + 1});
+            }
+        }
+        return merged;
+    }
+
+    private static long sum(List<Long> counts) {
+        return counts.stream().mapToLong(Long::longValue).sum();
+    }
+
+    private static GameScoreResponse convertToResponse(GameScore score) {
+        return new GameScoreResponse(
+                score.getId(),
+                score.getPlayerId(),
+                score.getUsername(),
+                score.getDifficulty(),
+                score.getCompletionTimeSeconds(),
+                score.getCompletionTimeFormatted(),
+                score.getCompletedAt()
+        );
+    }
+}
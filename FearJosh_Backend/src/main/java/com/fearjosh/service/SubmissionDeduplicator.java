@@ -0,0 +1,130 @@
+package com.fearjosh.service;
+
+import com.fearjosh.dto.GameScoreRequest;
+import com.fearjosh.dto.GameScoreResponse;
+import com.fearjosh.exception.DuplicateResourceException;
+import com.fearjosh.exception.InvalidRequestException;
+import com.fearjosh.repository.IdempotencyKeyJdbcRepository;
+import com.fearjosh.transaction.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Deduplicates POST /scores retries carrying the same Idempotency-Key. Recent responses are
+ * held in a bounded in-memory map, so a retry on the same instance replays without a
+ * transaction; otherwise the submission_idempotency_keys table decides, in the submission's
+ * own transaction. Keys are honoured for the configured TTL. In sharded mode the table of the
+ * player's shard decides instead.
+ */
+@Slf4j
+@Service
+public class SubmissionDeduplicator {
+
+    public static final int MAX_KEY_LENGTH = 128;
+
+    @Autowired
+    private GameScoreService gameScoreService;
+
+    @Autowired
+    private IdempotencyKeyJdbcRepository idempotencyKeyJdbcRepository;
+
+    // Only present in sharded mode
+    @Autowired(required = false)
+    private ShardedLeaderboardService shardedLeaderboardService;
+
+    private final Duration ttl;
+    private final Map<String, Completed> recent;
+
+    private static final class Completed {
+        final String requestFingerprint;
+        final GameScoreResponse response;
+        final long expiresAtNanos;
+
+        Completed(String requestFingerprint, GameScoreResponse response, long expiresAtNanos) {
+            this.requestFingerprint = requestFingerprint;
+            this.response = response;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    public SubmissionDeduplicator(@Value("${fearjosh.idempotency.ttl-minutes:1440}") long ttlMinutes,
+                                  @Value("${fearjosh.idempotency.cache-size:10000}") int cacheSize) {
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        // Insertion order equals expiry order, so the eldest entry is both the LRU victim and the next to expire
+        this.recent = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Completed> eldest) {
+                return size() > cacheSize || eldest.getValue().expiresAtNanos - System.nanoTime() < 0;
+            }
+        };
+    }
+
+    public GameScoreResponse submit(String idempotencyKey, GameScoreRequest request) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidRequestException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String fingerprint = fingerprint(request);
+        Completed completed = lookup(idempotencyKey);
+        if (completed != null) {
+            if (!completed.requestFingerprint.equals(fingerprint)) {
+                throw new DuplicateResourceException("Idempotency-Key was already used for a different submission");
+            }
+            return completed.response;
+        }
+
+        LocalDateTime expiredBefore = LocalDateTime.now().minus(ttl);
+        GameScoreResponse response = shardedLeaderboardService != null
+                ? shardedLeaderboardService.submitScoreOnce(idempotencyKey, fingerprint, request, expiredBefore)
+                : gameScoreService.submitScoreOnce(idempotencyKey, fingerprint, request, expiredBefore);
+        // Remembered only once committed, which is after this call unless the caller holds a transaction
+        Completed remembered = new Completed(fingerprint, response, System.nanoTime() + ttl.toNanos());
+        AfterCommit.run(() -> {
+            synchronized (recent) {
+                recent.put(idempotencyKey, remembered);
+            }
+        });
+        return response;
+    }
+
+    @Scheduled(cron = "${fearjosh.idempotency.purge-cron:0 0 * * * *}")
+    public void purgeExpired() {
+        LocalDateTime olderThan = LocalDateTime.now().minus(ttl);
+        int removed = shardedLeaderboardService != null
+                ? shardedLeaderboardService.purgeIdempotencyKeys(olderThan)
+                : idempotencyKeyJdbcRepository.deleteOlderThan(olderThan);
+        if (removed > 0) {
+            log.info("Purged {} expired idempotency keys", removed);
+        }
+    }
+
+    // Forgets the in-memory copies, as after a restart or on another instance
+    void clearLocal() {
+        synchronized (recent) {
+            recent.clear();
+        }
+    }
+
+    private Completed lookup(String idempotencyKey) {
+        synchronized (recent) {
+            Completed completed = recent.get(idempotencyKey);
+            if (completed != null && completed.expiresAtNanos - System.nanoTime() < 0) {
+                recent.remove(idempotencyKey);
+                return null;
+            }
+            return completed;
+        }
+    }
+
+    private static String fingerprint(GameScoreRequest request) {
+        return String.join("|", request.getPlayerId(), request.getUsername(), request.getDifficulty(),
+                String.valueOf(request.getCompletionTimeSeconds()));
+    }
+}
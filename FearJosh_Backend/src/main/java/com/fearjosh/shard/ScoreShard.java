@@ -0,0 +1,61 @@
+package com.fearjosh.shard;
+
+import com.fearjosh.repository.GameScoreJdbcRepository;
+import com.fearjosh.repository.IdempotencyKeyJdbcRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One shard of the sharded mode: its own database and pool holding the game_scores rows of the
+ * players hashed to it, and the Idempotency-Key claims of those players' submissions. Opening a
+ * shard migrates its schema with the application's scripts.
+ */
+@Getter
+public class ScoreShard implements AutoCloseable {
+
+    private final String name;
+    private final HikariDataSource dataSource;
+    private final GameScoreJdbcRepository repository;
+    private final IdempotencyKeyJdbcRepository idempotencyKeys;
+    // Local to this shard's database; writes spanning shards are not atomic
+    private final TransactionTemplate transactionTemplate;
+
+    private ScoreShard(String name, HikariDataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        this.repository = new GameScoreJdbcRepository(jdbcTemplate, null);
+        this.idempotencyKeys = new IdempotencyKeyJdbcRepository(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    public static ScoreShard open(String name, String url, String username, String password, int poolSize) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("fearjosh-shard-" + name);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(poolSize);
+        try {
+            Flyway.configure()
+                    .dataSource(dataSource)
+                    .locations("classpath:db/migration", "classpath:db/vendor/" + DatabaseDriver.fromJdbcUrl(url).getId())
+                    .load()
+                    .migrate();
+        } catch (RuntimeException e) {
+            dataSource.close();
+            throw e;
+        }
+        return new ScoreShard(name, dataSource);
+    }
+
+    @Override
+    public void close() {
+        dataSource.close();
+    }
+}
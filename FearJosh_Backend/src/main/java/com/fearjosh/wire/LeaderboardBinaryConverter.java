@@ -0,0 +1,83 @@
+package com.fearjosh.wire;
+
+import com.fearjosh.dto.ApiResponse;
+import com.fearjosh.dto.LeaderboardResponse;
+import com.fearjosh.dto.PlayerRankResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+
+/**
+ * Writes leaderboard and rank responses, and error bodies, in {@link LeaderboardWireFormat} when
+ * the client asks for {@value LeaderboardWireFormat#MEDIA_TYPE_VALUE}. Write-only; registered
+ * after Jackson so JSON stays the default for wildcard Accept headers.
+ */
+public class LeaderboardBinaryConverter extends AbstractGenericHttpMessageConverter<ApiResponse<?>> {
+
+    public LeaderboardBinaryConverter() {
+        super(LeaderboardWireFormat.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ApiResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return canWrite(clazz, mediaType) && isEncodable(type);
+    }
+
+    @Override
+    protected void writeInternal(ApiResponse<?> response, Type type, HttpOutputMessage outputMessage)
+            throws IOException {
+        if (!LeaderboardWireFormat.canEncode(response.getData())) {
+            throw new HttpMessageNotWritableException(
+                    "No binary encoding for " + response.getData().getClass().getSimpleName());
+        }
+        byte[] body = LeaderboardWireFormat.encode(response);
+        outputMessage.getHeaders().setContentLength(body.length);
+        outputMessage.getBody().write(body);
+    }
+
+    @Override
+    protected ApiResponse<?> readInternal(Class<? extends ApiResponse<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Binary leaderboard bodies cannot be read", inputMessage);
+    }
+
+    @Override
+    public ApiResponse<?> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Binary leaderboard bodies cannot be read", inputMessage);
+    }
+
+    // ApiResponse<Object> is what the exception handlers return; an undeclared body (ResponseEntity<?>)
+    // is checked against its value on write
+    private static boolean isEncodable(Type type) {
+        if (type instanceof ParameterizedType parameterized && parameterized.getRawType() == ApiResponse.class) {
+            Type data = parameterized.getActualTypeArguments()[0];
+            return data == LeaderboardResponse.class || data == PlayerRankResponse.class || data == Object.class;
+        }
+        if (type instanceof WildcardType wildcard) {
+            return wildcard.getUpperBounds().length == 1 && wildcard.getUpperBounds()[0] == Object.class;
+        }
+        return type == null || type == Object.class;
+    }
+}
@@ -0,0 +1,87 @@
+package com.fearjosh.wire;
+
+import com.fearjosh.dto.ApiResponse;
+import com.fearjosh.dto.GameScoreResponse;
+import com.fearjosh.dto.LeaderboardResponse;
+import com.fearjosh.dto.PlayerRankResponse;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary encoding of leaderboard and rank responses for the game client, which only
+ * shows rank, name and time. Integers are unsigned LEB128 varints and strings are a varint byte
+ * length followed by UTF-8:
+ * <pre>
+ * u8 version, u8 kind (0 message only, 1 leaderboard, 2 player rank), u8 success, string message
+ * leaderboard: string difficulty, varint totalPlayers, varint count,
+ *              count x (varint rank, string username, varint completionTimeSeconds)
+ * rank:        string difficulty, varint rank, varint totalPlayers, string username,
+ *              varint completionTimeSeconds
+ * </pre>
+ * Null numbers are written as 0 and null strings as empty.
+ */
+public final class LeaderboardWireFormat {
+
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.fearjosh.leaderboard";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    static final int VERSION = 1;
+    static final int KIND_MESSAGE = 0;
+    static final int KIND_LEADERBOARD = 1;
+    static final int KIND_RANK = 2;
+
+    private LeaderboardWireFormat() {
+    }
+
+    public static boolean canEncode(Object data) {
+        return data == null || data instanceof LeaderboardResponse || data instanceof PlayerRankResponse;
+    }
+
+    public static byte[] encode(ApiResponse<?> response) {
+        Object data = response.getData();
+        if (!canEncode(data)) {
+            throw new IllegalArgumentException("No binary encoding for " + data.getClass().getSimpleName());
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(VERSION);
+        out.write(data instanceof LeaderboardResponse ? KIND_LEADERBOARD
+                : data instanceof PlayerRankResponse ? KIND_RANK : KIND_MESSAGE);
+        out.write(response.isSuccess() ? 1 : 0);
+        writeString(out, response.getMessage());
+
+        if (data instanceof LeaderboardResponse leaderboard) {
+            writeString(out, leaderboard.getDifficulty());
+            writeVarint(out, leaderboard.getTotalPlayers());
+            writeVarint(out, leaderboard.getLeaderboard().size());
+            for (GameScoreResponse score : leaderboard.getLeaderboard()) {
+                writeVarint(out, score.getRank() != null ? score.getRank() : 0);
+                writeString(out, score.getUsername());
+                writeVarint(out, score.getCompletionTimeSeconds() != null ? score.getCompletionTimeSeconds() : 0);
+            }
+        } else if (data instanceof PlayerRankResponse rank) {
+            writeString(out, rank.getDifficulty());
+            writeVarint(out, rank.getRank() != null ? rank.getRank() : 0);
+            writeVarint(out, rank.getTotalPlayers() != null ? rank.getTotalPlayers() : 0);
+            writeString(out, rank.getUsername());
+            writeVarint(out, rank.getCompletionTimeSeconds() != null ? rank.getCompletionTimeSeconds() : 0);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        long remaining = Math.max(0, value);
+        while ((remaining & ~0x7FL) != 0) {
+            out.write((int) (remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.write((int) remaining);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        writeVarint(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,24 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update). Existing databases are
+-- baselined at this version, so this script only runs on fresh databases.
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    full_name VARCHAR(255),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS game_scores (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    player_id VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    difficulty VARCHAR(255) NOT NULL,
+    completion_time_seconds BIGINT NOT NULL,
+    completion_time_formatted VARCHAR(255) NOT NULL,
+    completed_at TIMESTAMP(6),
+    CONSTRAINT uk_game_scores_player_id UNIQUE (player_id)
+);
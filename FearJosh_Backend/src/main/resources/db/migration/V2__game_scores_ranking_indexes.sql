@@ -0,0 +1,7 @@
+-- Leaderboards, keyset pages and rank counts filter on difficulty and order/compare by
+-- (completion_time_seconds, id); the global variants do the same without the difficulty filter.
+CREATE INDEX IF NOT EXISTS idx_game_scores_difficulty_time_id
+    ON game_scores (difficulty, completion_time_seconds, id);
+
+CREATE INDEX IF NOT EXISTS idx_game_scores_time_id
+    ON game_scores (completion_time_seconds, id);
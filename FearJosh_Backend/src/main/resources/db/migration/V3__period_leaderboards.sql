@@ -0,0 +1,39 @@
+-- Best run per player within each daily / weekly / seasonal window, written on every submit.
+-- Rows of a window are compacted into period_leaderboard_archive once it has ended.
+CREATE TABLE period_scores (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    period VARCHAR(16) NOT NULL,
+    period_key VARCHAR(16) NOT NULL,
+    period_ends_at TIMESTAMP(6) NOT NULL,
+    player_id VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    difficulty VARCHAR(255) NOT NULL,
+    completion_time_seconds BIGINT NOT NULL,
+    completed_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_period_scores_player UNIQUE (period, period_key, player_id)
+);
+
+CREATE INDEX idx_period_scores_board
+    ON period_scores (period, period_key, difficulty, completion_time_seconds, id);
+
+CREATE INDEX idx_period_scores_ends_at
+    ON period_scores (period_ends_at);
+
+CREATE INDEX idx_period_scores_player
+    ON period_scores (player_id);
+
+-- Top of each ended window, per difficulty and overall (board = difficulty or ALL)
+CREATE TABLE period_leaderboard_archive (
+    period VARCHAR(16) NOT NULL,
+    period_key VARCHAR(16) NOT NULL,
+    board VARCHAR(255) NOT NULL,
+    board_rank INT NOT NULL,
+    score_id BIGINT NOT NULL,
+    player_id VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    difficulty VARCHAR(255) NOT NULL,
+    completion_time_seconds BIGINT NOT NULL,
+    completed_at TIMESTAMP(6) NOT NULL,
+    total_players INT NOT NULL,
+    CONSTRAINT pk_period_leaderboard_archive PRIMARY KEY (period, period_key, board, board_rank)
+);
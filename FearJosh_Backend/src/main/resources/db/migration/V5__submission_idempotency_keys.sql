@@ -0,0 +1,11 @@
+-- Idempotency-Key of each POST /scores with the response it produced, so a retry replays it.
+-- Rows are written in the submission's transaction and purged once they pass the TTL.
+CREATE TABLE submission_idempotency_keys (
+    idempotency_key VARCHAR(128) PRIMARY KEY,
+    request_fingerprint VARCHAR(1024) NOT NULL,
+    response TEXT,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_submission_idempotency_keys_created_at
+    ON submission_idempotency_keys (created_at);
@@ -0,0 +1,13 @@
+-- Lets a restarting instance load its rank index snapshot and replay only what changed since:
+-- updated_at is set by every score write, and deletions leave a row in game_score_deletions
+-- until no snapshot young enough to be loaded can predate them.
+ALTER TABLE game_scores ADD COLUMN updated_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+CREATE INDEX idx_game_scores_updated_at ON game_scores (updated_at);
+
+CREATE TABLE game_score_deletions (
+    player_id VARCHAR(255) PRIMARY KEY,
+    deleted_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_game_score_deletions_deleted_at ON game_score_deletions (deleted_at);
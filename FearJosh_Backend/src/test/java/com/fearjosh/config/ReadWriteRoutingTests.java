@@ -0,0 +1,116 @@
+package com.fearjosh.config;
+
+import com.fearjosh.dto.GameScoreRequest;
+import com.fearjosh.dto.GameScoreResponse;
+import com.fearjosh.dto.RankIndexReport;
+import com.fearjosh.service.CachedLeaderboard;
+import com.fearjosh.service.GameScoreService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two local H2 databases stand in for the primary and the replica; the replica is migrated
+ * separately and never receives writes, so whichever one answers shows where a query went.
+ */
+@SpringBootTest(properties = {
+        "fearjosh.datasource.read.url=jdbc:h2:mem:fearjosh_read;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "fearjosh.datasource.read.username=sa",
+        "fearjosh.datasource.read.password=",
+        "fearjosh.datasource.read.hikari.maximum-pool-size=3",
+        "fearjosh.datasource.read.migrate=true"
+})
+class ReadWriteRoutingTests {
+
+    private static final String PLAYER_ID = "routing-test-player";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    @Qualifier("readDataSource")
+    private DataSource readDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private GameScoreService gameScoreService;
+
+    @AfterEach
+    void cleanUp() {
+        // Outside a transaction, so this asks the primary
+        Integer onPrimary = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM game_scores WHERE player_id = ?",
+                Integer.class, PLAYER_ID);
+        if (onPrimary != null && onPrimary > 0) {
+            gameScoreService.deleteScore(PLAYER_ID);
+        }
+        new JdbcTemplate(readDataSource).update("DELETE FROM game_scores WHERE player_id = ?", PLAYER_ID);
+        jdbcTemplate.update("DELETE FROM game_runs WHERE player_id = ?", PLAYER_ID);
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReadDatabase() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        assertEquals("fearjosh_read", readOnly.execute(status -> currentDatabase()));
+        assertEquals("fearjosh", readWrite.execute(status -> currentDatabase()));
+        assertEquals("fearjosh", currentDatabase());
+    }
+
+    @Test
+    void serviceReadsComeFromTheReplicaAndWritesGoToThePrimary() {
+        long id = gameScoreService.submitScore(new GameScoreRequest(PLAYER_ID, "primary", "EASY", 300L)).getId();
+        // The replica has not caught up yet
+        assertEquals(List.of(), replicaRows());
+
+        // Same id as on the primary, as a replicated row would have
+        new JdbcTemplate(readDataSource).update("INSERT INTO game_scores (id, player_id, username, difficulty,"
+                + " completion_time_seconds, completion_time_formatted, completed_at)"
+                + " VALUES (?, ?, 'replica', 'EASY', 300, '05:00', CURRENT_TIMESTAMP)", id, PLAYER_ID);
+        assertEquals(List.of("replica"), replicaRows());
+
+        // The replica read did not fill the second-level cache, and player lookups go to the primary
+        assertTrue(gameScoreService.playerExists(PLAYER_ID));
+        assertEquals("primary", gameScoreService.getScoreByPlayerId(PLAYER_ID).getUsername());
+    }
+
+    // Usernames of this player's rows on a leaderboard read through a read-only transaction
+    private List<String> replicaRows() {
+        return gameScoreService.getLeaderboardByDifficulty("EASY", 100).getLeaderboard().stream()
+                .filter(score -> score.getPlayerId().equals(PLAYER_ID))
+                .map(GameScoreResponse::getUsername)
+                .toList();
+    }
+
+    @Test
+    void cacheFillsAndTheConsistencyCheckReadThePrimary() {
+        gameScoreService.submitScore(new GameScoreRequest(PLAYER_ID, "primary", "NIGHTMARE", 1L));
+        // The replica has not caught up, but the invalidated board is refilled from the primary
+        CachedLeaderboard board = gameScoreService.getCachedLeaderboard("NIGHTMARE", 10);
+        assertNotNull(board.getEtag());
+        assertEquals(PLAYER_ID, board.getLeaderboard().getLeaderboard().get(0).getPlayerId());
+
+        RankIndexReport report = gameScoreService.checkRankIndex(100);
+        assertTrue(report.isConsistent());
+        assertEquals(report.getIndexedScores(), report.getDatabaseScores());
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+    }
+}
@@ -0,0 +1,359 @@
+package com.fearjosh.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fearjosh.dto.GameScoreRequest;
+import com.fearjosh.service.GameScoreService;
+import com.fearjosh.service.LeaderboardStreamService;
+import com.fearjosh.wire.LeaderboardWireFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class GameScoreControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GameScoreService gameScoreService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LeaderboardStreamService leaderboardStreamService;
+
+    private final List<String> playerIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        playerIds.forEach(gameScoreService::deleteScore);
+        playerIds.clear();
+    }
+
+    @Test
+    void leaderboardRevalidatesWithEtagUntilTopChanges() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            submit("etag-top-" + i, "NIGHTMARE", 100L + i);
+        }
+
+        String etag = mockMvc.perform(get("/scores/leaderboard").param("difficulty", "nightmare").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.leaderboard[0].playerId").value("etag-top-0"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/scores/leaderboard").param("difficulty", "NIGHTMARE").param("limit", "3")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // Below the cut: the top 3 is unchanged but totalPlayers moves, so the ETag must too
+        submit("etag-slow", "NIGHTMARE", 500L);
+        String afterSlow = mockMvc.perform(get("/scores/leaderboard").param("difficulty", "NIGHTMARE").param("limit", "3")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalPlayers").value(6))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, afterSlow);
+
+        submit("etag-fast", "NIGHTMARE", 50L);
+        mockMvc.perform(get("/scores/leaderboard").param("difficulty", "NIGHTMARE").param("limit", "3")
+                        .header(HttpHeaders.IF_NONE_MATCH, afterSlow))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.leaderboard[0].playerId").value("etag-fast"))
+                .andExpect(jsonPath("$.data.leaderboard.length()").value(3));
+
+        gameScoreService.deleteScore("etag-fast");
+        playerIds.remove("etag-fast");
+        // Same top 3 and totalPlayers as before, so the ETag comes back although the cache was invalidated twice,
+        // as it would after a restart or from another instance
+        mockMvc.perform(get("/scores/leaderboard").param("difficulty", "NIGHTMARE").param("limit", "3")
+                        .header(HttpHeaders.IF_NONE_MATCH, afterSlow))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/scores/leaderboard/global").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.leaderboard[0].playerId").value("etag-top-0"));
+    }
+
+    @Test
+    void cachedLeaderboardIsServedFromPrecompressedBytes() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            submit("gzip-top-" + i, "HARD", 70L + i);
+        }
+
+        MvcResult plain = mockMvc.perform(get("/scores/leaderboard").param("difficulty", "HARD").param("limit", "4")
+                        .with(remoteAddr("10.23.0.1")))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$.data.leaderboard[0].playerId").value("gzip-top-0"))
+                .andReturn();
+        MvcResult compressed = mockMvc.perform(get("/scores/leaderboard").param("difficulty", "HARD").param("limit", "4")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8")
+                        .with(remoteAddr("10.23.0.1")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+        assertTrue(String.join(",", compressed.getResponse().getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING));
+
+        byte[] inflated;
+        try (GZIPInputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(compressed.getResponse().getContentAsByteArray()))) {
+            inflated = in.readAllBytes();
+        }
+        assertArrayEquals(plain.getResponse().getContentAsByteArray(), inflated);
+        String gzipEtag = compressed.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(plain.getResponse().getHeader(HttpHeaders.ETAG), gzipEtag);
+
+        mockMvc.perform(get("/scores/leaderboard").param("difficulty", "HARD").param("limit", "4")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, gzipEtag)
+                        .with(remoteAddr("10.23.0.1")))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/scores/leaderboard").param("difficulty", "HARD").param("limit", "4")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0")
+                        .with(remoteAddr("10.23.0.1")))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void gameClientCanNegotiateTheBinaryLeaderboardFormat() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            submit("binary-top-" + i, "NORMAL", 40L + i);
+        }
+        String binary = LeaderboardWireFormat.MEDIA_TYPE_VALUE;
+
+        MvcResult leaderboard = mockMvc.perform(get("/scores/leaderboard").param("difficulty", "NORMAL").param("limit", "3")
+                        .header(HttpHeaders.ACCEPT, binary + ", application/json;q=0.5")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .with(remoteAddr("10.24.0.1")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, binary))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn();
+        ByteBuffer body = ByteBuffer.wrap(leaderboard.getResponse().getContentAsByteArray());
+        assertEquals(1, body.get());
+        assertEquals(1, body.get());
+        assertEquals(1, body.get());
+        assertEquals("Success", readString(body));
+        assertEquals("NORMAL", readString(body));
+        assertEquals(3, readVarint(body));
+        assertEquals(3, readVarint(body));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i + 1, readVarint(body));
+            assertEquals("binary-top-" + i, readString(body));
+            assertEquals(40L + i, readVarint(body));
+        }
+        assertFalse(body.hasRemaining());
+        assertTrue(leaderboard.getResponse().getHeader(HttpHeaders.ETAG).endsWith("-bin\""));
+
+        MvcResult rank = mockMvc.perform(get("/scores/rank/binary-top-1").header(HttpHeaders.ACCEPT, binary)
+                        .with(remoteAddr("10.24.0.1")))
+                .andExpect(status().isOk())
+                .andReturn();
+        body = ByteBuffer.wrap(rank.getResponse().getContentAsByteArray());
+        body.position(3);
+        readString(body);
+        assertEquals("NORMAL", readString(body));
+        assertEquals(2, readVarint(body));
+        assertEquals(3, readVarint(body));
+        assertEquals("binary-top-1", readString(body));
+        assertEquals(41, readVarint(body));
+
+        MvcResult missing = mockMvc.perform(get("/scores/rank/binary-nobody").header(HttpHeaders.ACCEPT, binary)
+                        .with(remoteAddr("10.24.0.1")))
+                .andExpect(status().isNotFound())
+                .andReturn();
+        body = ByteBuffer.wrap(missing.getResponse().getContentAsByteArray());
+        assertEquals(1, body.get());
+        assertEquals(0, body.get());
+        assertEquals(0, body.get());
+        assertTrue(readString(body).contains("binary-nobody"));
+
+        // Wildcards still get JSON
+        mockMvc.perform(get("/scores/rank/binary-top-1").header(HttpHeaders.ACCEPT, "*/*")
+                        .with(remoteAddr("10.24.0.1")))
+                .andExpect(jsonPath("$.data.rank").value(2));
+    }
+
+    @Test
+    void keysetPagesAndExportWalkTheWholeBoardInOrder() throws Exception {
+        for (int i = 0; i < 7; i++) {
+            submit("page-" + i, "EASY", 900L - (i % 3));
+        }
+
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        int rank = 0;
+        do {
+            MvcResult result = mockMvc.perform(get("/scores/leaderboard/page").param("difficulty", "easy")
+                            .param("limit", "3").param("cursor", cursor == null ? "" : cursor))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode data = objectMapper.readTree(result.getResponse().getContentAsString()).get("data");
+            for (JsonNode score : data.get("scores")) {
+                paged.add(score.get("playerId").asText());
+                assertEquals(++rank, score.get("rank").asInt());
+            }
+            cursor = data.get("nextCursor").isNull() ? null : data.get("nextCursor").asText();
+        } while (cursor != null);
+        assertEquals(List.of("page-2", "page-5", "page-1", "page-4", "page-0", "page-3", "page-6"), paged);
+
+        MvcResult export = mockMvc.perform(get("/scores/export").param("difficulty", "EASY"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<String> exported = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            exported.add(objectMapper.readTree(line).get("playerId").asText());
+        }
+        assertEquals(paged, exported);
+
+        mockMvc.perform(get("/scores/all/page").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchIsRateLimitedPerClientAndPerPlayer() throws Exception {
+        // Default ip burst 40 with search costing 5 tokens; refills may let a few more through
+        int allowed = 0;
+        while (mockMvc.perform(get("/scores/search").param("username", "nobody").with(remoteAddr("10.18.0.1")))
+                .andReturn().getResponse().getStatus() == 200) {
+            allowed++;
+        }
+        assertTrue(allowed >= 8 && allowed < 50, "allowed " + allowed);
+        mockMvc.perform(get("/scores/search").param("username", "nobody").with(remoteAddr("10.18.0.1")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.success").value(false));
+        mockMvc.perform(get("/scores/search").param("username", "nobody").with(remoteAddr("10.18.0.2")))
+                .andExpect(status().isOk());
+
+        // Default player burst 10 per address; the ip bucket (burst 40) is not the one that runs out
+        int playerAllowed = 0;
+        while (mockMvc.perform(get("/scores/health").header("X-Player-Id", "rate-limited")
+                        .with(remoteAddr("10.18.1.1")))
+                .andReturn().getResponse().getStatus() == 200) {
+            playerAllowed++;
+        }
+        assertTrue(playerAllowed >= 10 && playerAllowed < 40, "allowed " + playerAllowed);
+        mockMvc.perform(get("/scores/exists/rate-limited").with(remoteAddr("10.18.1.1")))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(get("/scores/health").with(remoteAddr("10.18.1.1")))
+                .andExpect(status().isOk());
+        // Naming a player from one address does not throttle that player's own client
+        mockMvc.perform(get("/scores/exists/rate-limited").with(remoteAddr("10.18.2.1")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void streamSendsASnapshotThenDiffsIncludingTotalPlayerChanges() throws Exception {
+        submit("stream-fast", "HARD", 1L);
+        MvcResult stream = mockMvc.perform(get("/scores/leaderboard/stream").param("difficulty", "HARD")
+                        .param("limit", "1").with(remoteAddr("10.7.0.1")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        JsonNode snapshot = awaitEvent(stream, 1);
+        assertEquals("stream-fast", snapshot.path("leaderboard").path(0).path("playerId").asText());
+        int totalPlayers = snapshot.path("totalPlayers").asInt();
+
+        // Below the cut: the top 1 is unchanged, only totalPlayers moves
+        submit("stream-slow", "HARD", 100_000L);
+        leaderboardStreamService.publishDiffs();
+        JsonNode diff = awaitEvent(stream, 2);
+        assertEquals(totalPlayers + 1, diff.path("totalPlayers").asInt());
+        assertEquals(0, diff.path("changed").size());
+
+        submit("stream-faster", "HARD", 0L);
+        leaderboardStreamService.publishDiffs();
+        diff = awaitEvent(stream, 3);
+        assertEquals("stream-faster", diff.path("changed").path(0).path("playerId").asText());
+        assertEquals("stream-fast", diff.path("removedPlayerIds").path(0).asText());
+    }
+
+    // Events are sent off the publishing thread, and the scheduled tick may publish first
+    private JsonNode awaitEvent(MvcResult stream, int count) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        List<JsonNode> events = sseData(stream);
+        while (events.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            events = sseData(stream);
+        }
+        assertEquals(count, events.size());
+        return events.get(count - 1);
+    }
+
+    private List<JsonNode> sseData(MvcResult stream) throws Exception {
+        List<JsonNode> events = new ArrayList<>();
+        // An event may be half written by the sender thread; only those ended by a blank line are complete
+        String content = stream.getResponse().getContentAsString();
+        content = content.substring(0, content.lastIndexOf("\n\n") + 1);
+        for (String line : content.split("\n")) {
+            if (line.startsWith("data:")) {
+                events.add(objectMapper.readTree(line.substring("data:".length())));
+            }
+        }
+        return events;
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[(int) readVarint(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static RequestPostProcessor remoteAddr(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+    private void submit(String playerId, String difficulty, long seconds) {
+        playerIds.add(playerId);
+        gameScoreService.submitScore(new GameScoreRequest(playerId, playerId, difficulty, seconds));
+    }
+}
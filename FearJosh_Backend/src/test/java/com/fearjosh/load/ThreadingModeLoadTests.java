@@ -0,0 +1,214 @@
+package com.fearjosh.load;
+
+import com.fearjosh.FearJoshBackendApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the platform-thread and virtual-thread request models under a mixed workload where
+ * every connection checkout costs a simulated round trip to a remote database. Rank lookups are
+ * served from memory, so they should not starve behind submits that wait for the pool: they must
+ * stay faster than submits, and on virtual threads their p99 must beat the platform-thread p99.
+ * Excluded from the default build; run with {@code mvn -Pload-test test}. The virtual-thread
+ * comparison needs a Java 21 runtime and is skipped on older ones.
+ */
+@Slf4j
+@Tag("load")
+class ThreadingModeLoadTests {
+
+    private static final int USERS = 400;
+    private static final int PLAYERS = 200;
+    private static final Duration DURATION = Duration.ofSeconds(15);
+    private static final long DB_LATENCY_MS = 20;
+
+    @Test
+    void platformThreadsServeRanksAheadOfSubmits() throws Exception {
+        assertServesRanksAheadOfSubmits("platform threads", run(false));
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void virtualThreadsCutTheRankTail() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+        assertServesRanksAheadOfSubmits("virtual threads", virtual);
+        assertTrue(virtual.rankP99 < platform.rankP99,
+                "rank p99 on virtual threads should beat platform threads: " + virtual + " vs " + platform);
+    }
+
+    private static void assertServesRanksAheadOfSubmits(String mode, Result result) {
+        log.info("{}: {}", mode, result);
+        assertEquals(0, result.errors, mode + ": " + result);
+        assertTrue(result.rankP50 < result.submitP50, mode + ": " + result);
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                FearJoshBackendApplication.class, RemoteDatabaseLatency.class)
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.threads.max=50",
+                        "fearjosh.ratelimit.enabled=false",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:load" + virtualThreads
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "logging.level.root=WARN",
+                        "logging.level.com.fearjosh=WARN")
+                .run()) {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            String base = "http://localhost:" + port + "/scores";
+            // HttpClient only closes on Java 21, so its executor is shut down here instead
+            ExecutorService clientExecutor = Executors.newFixedThreadPool(16);
+            ExecutorService users = Executors.newFixedThreadPool(USERS);
+            try {
+                return drive(base, HttpClient.newBuilder()
+                        .executor(clientExecutor)
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .build(), users);
+            } finally {
+                users.shutdownNow();
+                clientExecutor.shutdownNow();
+            }
+        }
+    }
+
+    private Result drive(String base, HttpClient client, ExecutorService users) throws Exception {
+        for (int i = 0; i < PLAYERS; i++) {
+            HttpResponse<String> response = client.send(submit(base, i), HttpResponse.BodyHandlers.ofString());
+            assertEquals(201, response.statusCode(), response.body());
+        }
+
+        List<Long> rankLatencies = Collections.synchronizedList(new ArrayList<>());
+        List<Long> submitLatencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger errors = new AtomicInteger();
+        long deadline = System.nanoTime() + DURATION.toNanos();
+
+        for (int u = 0; u < USERS; u++) {
+            users.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    int player = ThreadLocalRandom.current().nextInt(PLAYERS);
+                    boolean isSubmit = ThreadLocalRandom.current().nextInt(5) == 0;
+                    HttpRequest request = isSubmit
+                            ? submit(base, player)
+                            : HttpRequest.newBuilder(URI.create(base + "/rank/load-" + player)).GET().build();
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    (isSubmit ? submitLatencies : rankLatencies).add(System.nanoTime() - start);
+                }
+                return null;
+            });
+        }
+        users.shutdown();
+        assertTrue(users.awaitTermination(DURATION.toSeconds() + 60, TimeUnit.SECONDS));
+        return new Result(rankLatencies, submitLatencies, errors.get(), DURATION);
+    }
+
+    private static HttpRequest submit(String base, int player) {
+        String body = "{\"playerId\":\"load-" + player + "\",\"username\":\"load" + player
+                + "\",\"difficulty\":\"NORMAL\",\"completionTimeSeconds\":"
+                + (60 + ThreadLocalRandom.current().nextInt(3_600)) + "}";
+        return HttpRequest.newBuilder(URI.create(base))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static final class Result {
+        final double rankP50;
+        final double rankP99;
+        final double submitP50;
+        final double submitP99;
+        final int errors;
+        final String summary;
+
+        Result(List<Long> rank, List<Long> submit, int errors, Duration duration) {
+            double seconds = duration.toMillis() / 1000.0;
+            rankP50 = percentile(rank, 0.50);
+            rankP99 = percentile(rank, 0.99);
+            submitP50 = percentile(submit, 0.50);
+            submitP99 = percentile(submit, 0.99);
+            this.errors = errors;
+            summary = String.format("%.0f req/s, rank p50=%.1fms p99=%.1fms, submit p50=%.1fms p99=%.1fms, errors=%d",
+                    (rank.size() + submit.size()) / seconds, rankP50, rankP99, submitP50, submitP99, errors);
+        }
+
+        private static double percentile(List<Long> latencies, double p) {
+            if (latencies.isEmpty()) {
+                return Double.NaN;
+            }
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            return sorted.get((int) Math.min(sorted.size() - 1, Math.ceil(p * sorted.size()) - 1)) / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return summary;
+        }
+    }
+
+    @Configuration
+    static class RemoteDatabaseLatency {
+
+        // Every connection checkout pays a network round trip, as it would against Neon
+        @Bean
+        static BeanPostProcessor remoteDatabaseLatencyPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            try {
+                                Thread.sleep(DB_LATENCY_MS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            return super.getConnection();
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
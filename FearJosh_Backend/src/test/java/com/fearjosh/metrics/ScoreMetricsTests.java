@@ -0,0 +1,66 @@
+package com.fearjosh.metrics;
+
+import com.fearjosh.dto.GameScoreRequest;
+import com.fearjosh.exception.ResourceNotFoundException;
+import com.fearjosh.service.GameScoreService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.search.Search;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class ScoreMetricsTests {
+
+    private static final String PLAYER_ID = "metrics-test-player";
+
+    @Autowired
+    private GameScoreService gameScoreService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void cleanUp() {
+        if (gameScoreService.playerExists(PLAYER_ID)) {
+            gameScoreService.deleteScore(PLAYER_ID);
+        }
+    }
+
+    @Test
+    void difficultyTagsAreNormalized() {
+        assertEquals("HARD", ScoreMetrics.tag("hard"));
+        assertEquals(ScoreMetrics.GLOBAL, ScoreMetrics.tag(null));
+        assertEquals(ScoreMetrics.GLOBAL, ScoreMetrics.tag("all"));
+        assertEquals(ScoreMetrics.OTHER, ScoreMetrics.tag("made-up-" + System.nanoTime()));
+    }
+
+    @Test
+    void rankLookupsAreTimedWhetherOrNotThePlayerExists() {
+        long hard = rankCount("HARD");
+        long global = rankCount(ScoreMetrics.GLOBAL);
+        long other = rankCount(ScoreMetrics.OTHER);
+
+        gameScoreService.submitScore(new GameScoreRequest(PLAYER_ID, "metrics", "HARD", 321L));
+        gameScoreService.getPlayerRank(PLAYER_ID);
+        gameScoreService.getPlayerGlobalRank(PLAYER_ID);
+        assertEquals(hard + 1, rankCount("HARD"));
+        assertEquals(global + 1, rankCount(ScoreMetrics.GLOBAL));
+
+        assertThrows(ResourceNotFoundException.class, () -> gameScoreService.getPlayerRank("metrics-test-missing"));
+        assertThrows(ResourceNotFoundException.class, () -> gameScoreService.getPlayerGlobalRank("metrics-test-missing"));
+        assertEquals(other + 1, rankCount(ScoreMetrics.OTHER));
+        assertEquals(global + 2, rankCount(ScoreMetrics.GLOBAL));
+    }
+
+    // Summed over the index and sql sources
+    private long rankCount(String difficulty) {
+        return Search.in(meterRegistry).name("fearjosh.scores.rank").tag("difficulty", difficulty)
+                .timers().stream().mapToLong(Timer::count).sum();
+    }
+}
@@ -0,0 +1,86 @@
+package com.fearjosh.ranking;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompletionTimeHistogramTests {
+
+    @Test
+    void bucketsCoverEveryValueWithinRelativeError() {
+        for (long value : new long[]{0, 1, 127, 128, 129, 255, 256, 1000, 3599, 86_400, 1L << 30}) {
+            int bucket = CompletionTimeHistogram.bucketOf(value);
+            assertTrue(CompletionTimeHistogram.lowerBound(bucket) <= value, "lower bound of " + value);
+            assertTrue(CompletionTimeHistogram.upperBound(bucket) >= value, "upper bound of " + value);
+            long width = CompletionTimeHistogram.upperBound(bucket) - CompletionTimeHistogram.lowerBound(bucket) + 1;
+            assertTrue(width == 1 || width <= value / 64.0 + 1, "bucket width at " + value);
+        }
+        for (int bucket = 1; bucket < CompletionTimeHistogram.BUCKETS; bucket++) {
+            assertEquals(CompletionTimeHistogram.upperBound(bucket - 1) + 1, CompletionTimeHistogram.lowerBound(bucket));
+        }
+    }
+
+    @Test
+    void percentilesAndSlowerCountsTrackAddsAndRemoves() {
+        Random random = new Random(7);
+        long[] times = new long[20_000];
+        CompletionTimeHistogram histogram = new CompletionTimeHistogram();
+        for (int i = 0; i < times.length; i++) {
+            times[i] = 60 + random.nextInt(7_200);
+            histogram.add(times[i]);
+        }
+        // Remove half again, as improvements and deletions do
+        for (int i = 0; i < times.length; i += 2) {
+            histogram.remove(times[i]);
+        }
+        long[] kept = new long[times.length / 2];
+        for (int i = 1, k = 0; i < times.length; i += 2) {
+            kept[k++] = times[i];
+        }
+        Arrays.sort(kept);
+
+        DistributionSnapshot snapshot = histogram.snapshot(20);
+        assertEquals(kept.length, snapshot.getTotal());
+        assertEquals(kept.length, snapshot.getHistogram().stream().mapToLong(DistributionSnapshot.Bin::getCount).sum());
+        for (double percentile : new double[]{1, 25, 50, 90, 99}) {
+            long exact = kept[(int) Math.ceil(percentile / 100 * kept.length) - 1];
+            assertEquals(exact, snapshot.valueAtPercentile(percentile), exact * 0.016 + 1, "p" + percentile);
+        }
+
+        long slowerThan100 = Arrays.stream(kept).filter(t -> t > 100).count();
+        assertEquals(slowerThan100, snapshot.countSlowerThan(100));
+    }
+
+    @Test
+    void distributionIndexAppliesChangesThatRaceTheWarmUp() {
+        ScoreDistributionIndex index = new ScoreDistributionIndex();
+        ScoreEntry first = entry("a", "HARD", 300);
+        ScoreEntry improved = entry("a", "HARD", 200);
+        index.onScoreChanged(new ScoreChangedEvent(entry("a", "HARD", 400), first));
+        index.onScoreChanged(new ScoreChangedEvent(first, improved));
+        index.onScoreChanged(new ScoreChangedEvent(entry("b", "HARD", 500), null));
+        index.onIndexWarmed(new ScoreIndexWarmedEvent(List.of(
+                entry("a", "HARD", 400), entry("b", "HARD", 500), entry("c", "HARD", 100), entry("d", "EASY", 50))));
+
+        DistributionSnapshot hard = index.snapshot("HARD");
+        assertEquals(2, hard.getTotal());
+        assertEquals(1, hard.countSlowerThan(100));
+        assertEquals(0, hard.countSlowerThan(200));
+        assertEquals(3, index.snapshot(null).getTotal());
+
+        index.onScoreChanged(new ScoreChangedEvent(entry("c", "HARD", 100), entry("c", "EASY", 40)));
+        assertEquals(1, index.snapshot("HARD").getTotal());
+        assertEquals(2, index.snapshot("EASY").getTotal());
+        assertEquals(3, index.snapshot(null).getTotal());
+    }
+
+    private static ScoreEntry entry(String playerId, String difficulty, long seconds) {
+        return new ScoreEntry(1L, playerId, playerId, difficulty, seconds, LocalDateTime.of(2024, 1, 1, 0, 0));
+    }
+}
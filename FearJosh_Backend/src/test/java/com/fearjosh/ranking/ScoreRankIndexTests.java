@@ -0,0 +1,250 @@
+package com.fearjosh.ranking;
+
+import com.fearjosh.dto.GameScoreRequest;
+import com.fearjosh.dto.GameScoreResponse;
+import com.fearjosh.dto.NeighborhoodResponse;
+import com.fearjosh.dto.RankIndexReport;
+import com.fearjosh.model.Difficulty;
+import com.fearjosh.model.GameScore;
+import com.fearjosh.repository.GameScoreJdbcRepository;
+import com.fearjosh.repository.GameScoreRepository;
+import com.fearjosh.service.GameScoreService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ScoreRankIndexTests {
+
+    @Autowired
+    private GameScoreService gameScoreService;
+
+    @Autowired
+    private GameScoreRepository gameScoreRepository;
+
+    @Autowired
+    private GameScoreJdbcRepository gameScoreJdbcRepository;
+
+    @Autowired
+    private ScoreRankIndex scoreRankIndex;
+
+    private final List<String> playerIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        playerIds.forEach(gameScoreService::deleteScore);
+        playerIds.clear();
+    }
+
+    @Test
+    void indexMatchesSqlRanksAfterSubmitsAndDeletes() {
+        Random random = new Random(42);
+        Difficulty[] difficulties = Difficulty.values();
+        for (int i = 0; i < 300; i++) {
+            String playerId = "rank-test-" + i;
+            playerIds.add(playerId);
+            gameScoreService.submitScore(new GameScoreRequest(playerId, "player" + i,
+                    difficulties[random.nextInt(difficulties.length)].name(), 60L + random.nextInt(200)));
+        }
+        // Improvements, non-improvements and difficulty changes
+        for (int i = 0; i < 100; i++) {
+            String playerId = "rank-test-" + random.nextInt(300);
+            gameScoreService.submitScore(new GameScoreRequest(playerId, "renamed" + i,
+                    difficulties[random.nextInt(difficulties.length)].name(), 30L + random.nextInt(200)));
+        }
+        for (int i = 0; i < 20; i++) {
+            gameScoreService.deleteScore(playerIds.remove(playerIds.size() - 1));
+        }
+
+        assertTrue(scoreRankIndex.isReady());
+        for (String playerId : playerIds) {
+            ScoreEntry entry = scoreRankIndex.findByPlayerId(playerId);
+            long seconds = entry.getCompletionTimeSeconds();
+            assertEquals(gameScoreRepository.getPlayerRank(entry.getDifficulty(), seconds),
+                    gameScoreService.getPlayerRank(playerId).getRank());
+            assertEquals(gameScoreRepository.getPlayerGlobalRank(seconds),
+                    gameScoreService.getPlayerGlobalRank(playerId).getRank());
+        }
+
+        RankIndexReport report = gameScoreService.checkRankIndex(50);
+        assertTrue(report.isConsistent());
+        assertEquals(playerIds.size(), report.getIndexedScores());
+    }
+
+    @Test
+    void neighborhoodIsTheLeaderboardSliceAroundThePlayer() {
+        for (int i = 0; i < 40; i++) {
+            String playerId = "around-test-" + i;
+            playerIds.add(playerId);
+            // Plenty of tied times, which must share a rank as they do on /rank
+            gameScoreService.submitScore(new GameScoreRequest(playerId, "around" + i,
+                    i % 2 == 0 ? "NIGHTMARE" : "EASY", 1000L + (i * 37L) % 7));
+        }
+
+        List<GameScoreResponse> board = gameScoreService.getLeaderboardByDifficulty("NIGHTMARE", 100).getLeaderboard();
+        List<GameScoreResponse> global = gameScoreService.getGlobalLeaderboard(100).getLeaderboard();
+        for (String playerId : playerIds) {
+            NeighborhoodResponse globalWindow = gameScoreService.getPlayerGlobalNeighborhood(playerId, 3);
+            assertWindow(global, playerId, 3, globalWindow);
+            assertEquals((int) gameScoreService.getPlayerGlobalRank(playerId).getRank(), globalWindow.getRank());
+            if (scoreRankIndex.findByPlayerId(playerId).getDifficulty().equals("NIGHTMARE")) {
+                NeighborhoodResponse window = gameScoreService.getPlayerNeighborhood(playerId, 5);
+                assertWindow(board, playerId, 5, window);
+                assertEquals((int) gameScoreService.getPlayerRank(playerId).getRank(), window.getRank());
+            }
+        }
+    }
+
+    @Test
+    void restartFromSnapshotReplaysOnlyLaterChanges(@TempDir Path dir) throws Exception {
+        for (int i = 0; i < 30; i++) {
+            String playerId = "snapshot-test-" + i;
+            playerIds.add(playerId);
+            gameScoreService.submitScore(new GameScoreRequest(playerId, "snap" + i,
+                    i % 3 == 0 ? "HARD" : "EASY", 500L + i));
+        }
+        // A row only the snapshot holds shows the restart really loaded it instead of the table
+        ScoreSnapshot captured = scoreRankIndex.capture();
+        List<ScoreEntry> entries = new ArrayList<>(captured.getEntries());
+        entries.add(new ScoreEntry(Long.MAX_VALUE, "snapshot-only", "ghost", "EASY", Long.MAX_VALUE, null));
+        Path path = dir.resolve("index.snap");
+        ScoreSnapshotFile.write(path, new ScoreSnapshot(captured.getCapturedAt(), entries));
+
+        gameScoreService.submitScore(new GameScoreRequest("snapshot-test-1", "snap1", "NIGHTMARE", 10L));
+        gameScoreService.submitScore(new GameScoreRequest("snapshot-test-2", "snap2", "EASY", 20L));
+        gameScoreService.deleteScore("snapshot-test-3");
+        playerIds.remove("snapshot-test-3");
+        playerIds.add("snapshot-test-new");
+        gameScoreService.submitScore(new GameScoreRequest("snapshot-test-new", "fresh", "HARD", 30L));
+
+        ScoreRankIndex restarted = new ScoreRankIndex();
+        ReflectionTestUtils.setField(restarted, "gameScoreRepository", gameScoreRepository);
+        ReflectionTestUtils.setField(restarted, "gameScoreJdbcRepository", gameScoreJdbcRepository);
+        ReflectionTestUtils.setField(restarted, "eventPublisher", (ApplicationEventPublisher) event -> { });
+        ReflectionTestUtils.setField(restarted, "replayOverlapSeconds", 300L);
+        ReflectionTestUtils.setField(restarted, "maxAgeMinutes", 60L);
+        restarted.warm(path);
+
+        assertNotNull(restarted.findByPlayerId("snapshot-only"));
+        assertNull(restarted.findByPlayerId("snapshot-test-3"));
+        assertEquals(scoreRankIndex.count() + 1, restarted.count());
+        for (String playerId : playerIds) {
+            assertEquals(scoreRankIndex.findByPlayerId(playerId), restarted.findByPlayerId(playerId));
+        }
+        ScoreEntry improved = restarted.findByPlayerId("snapshot-test-1");
+        assertEquals("NIGHTMARE", improved.getDifficulty());
+        assertEquals(scoreRankIndex.getRank("NIGHTMARE", 10L), restarted.getRank("NIGHTMARE", 10L));
+        assertEquals(scoreRankIndex.positionOf(null, improved), restarted.positionOf(null, improved));
+    }
+
+    @Test
+    void enabledSnapshotNeedsAnAbsolutePath(@TempDir Path dir) {
+        ScoreRankIndex index = new ScoreRankIndex();
+        ReflectionTestUtils.setField(index, "snapshotEnabled", true);
+        for (String path : new String[]{"", "data/score-index.snap"}) {
+            ReflectionTestUtils.setField(index, "snapshotPath", path);
+            assertThrows(IllegalStateException.class, index::checkSnapshotPath);
+        }
+        ReflectionTestUtils.setField(index, "snapshotPath", dir.resolve("index.snap").toString());
+        index.checkSnapshotPath();
+    }
+
+    @Test
+    void distributionFollowsTheIndexUnderConcurrentChangesToOnePlayer() throws Exception {
+        ScoreDistributionIndex distributions = new ScoreDistributionIndex();
+        ReflectionTestUtils.setField(distributions, "histogramBins", 20);
+        distributions.onIndexWarmed(new ScoreIndexWarmedEvent(List.of()));
+        ScoreRankIndex index = new ScoreRankIndex();
+        // A delivery this slow reordered the events of competing commits while they were published after the lock
+        ReflectionTestUtils.setField(index, "eventPublisher", (ApplicationEventPublisher) event -> {
+            Thread.yield();
+            if (event instanceof ScoreChangedEvent changed) {
+                distributions.onScoreChanged(changed);
+            }
+        });
+
+        String[] difficulties = {"EASY", "HARD"};
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int w = 0; w < 4; w++) {
+                int writer = w;
+                done.add(writers.submit(() -> {
+                    Random random = new Random(writer);
+                    for (int i = 0; i < 2000; i++) {
+                        String playerId = "order-test-" + random.nextInt(3);
+                        if (random.nextInt(10) == 0) {
+                            index.remove(new GameScore(playerId, playerId, "EASY", 1L, "00:01"));
+                            continue;
+                        }
+                        long time = 60L + random.nextInt(5000);
+                        GameScore score = new GameScore(playerId, playerId, difficulties[random.nextInt(2)], time,
+                                time + " s");
+                        score.setId((long) writer * 10_000 + i);
+                        index.record(score);
+                    }
+                }));
+            }
+            for (Future<?> writer : done) {
+                writer.get();
+            }
+        } finally {
+            writers.shutdownNow();
+        }
+
+        assertEquals(index.count(), distributions.snapshot(null).getTotal());
+        for (String difficulty : difficulties) {
+            CompletionTimeHistogram expected = new CompletionTimeHistogram();
+            for (int p = 0; p < 3; p++) {
+                ScoreEntry entry = index.findByPlayerId("order-test-" + p);
+                if (entry != null && entry.getDifficulty().equals(difficulty)) {
+                    expected.add(entry.getCompletionTimeSeconds());
+                }
+            }
+            DistributionSnapshot actual = distributions.snapshot(difficulty);
+            assertEquals(index.countByDifficulty(difficulty), actual.getTotal());
+            assertEquals(expected.snapshot(20).getHistogram(), actual.getHistogram());
+        }
+    }
+
+    private static void assertWindow(List<GameScoreResponse> board, String playerId, int radius,
+                                     NeighborhoodResponse neighborhood) {
+        int position = 0;
+        while (!board.get(position).getPlayerId().equals(playerId)) {
+            position++;
+        }
+        List<GameScoreResponse> expected = board.subList(Math.max(0, position - radius),
+                Math.min(board.size(), position + radius + 1));
+
+        assertEquals(sharedRank(board, board.get(position)), neighborhood.getRank());
+        assertEquals(board.size(), neighborhood.getTotalPlayers());
+        assertEquals(expected.stream().map(GameScoreResponse::getPlayerId).toList(),
+                neighborhood.getLeaderboard().stream().map(GameScoreResponse::getPlayerId).toList());
+        assertEquals(expected.stream().map(entry -> sharedRank(board, entry)).toList(),
+                neighborhood.getLeaderboard().stream().map(GameScoreResponse::getRank).toList());
+    }
+
+    private static int sharedRank(List<GameScoreResponse> board, GameScoreResponse entry) {
+        return (int) board.stream()
+                .filter(other -> other.getCompletionTimeSeconds() < entry.getCompletionTimeSeconds())
+                .count() + 1;
+    }
+}
@@ -0,0 +1,104 @@
+package com.fearjosh.ranking;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScoreSnapshotFileTests {
+
+    private static final String[] DIFFICULTIES = {"EASY", "NORMAL", "HARD", "NIGHTMARE"};
+
+    @Test
+    void snapshotRoundTripsThroughTheFile(@TempDir Path dir) throws IOException {
+        List<ScoreEntry> entries = randomEntries(500, new Random(7));
+        entries.add(new ScoreEntry(10_000L, "player-ü", "Jösh 恐怖", "HARD", 99_999L, null));
+        ScoreSnapshot snapshot = new ScoreSnapshot(LocalDateTime.of(2026, 3, 1, 12, 30, 15, 123_456_000), entries);
+        Path path = dir.resolve("nested").resolve("index.snap");
+
+        ScoreSnapshotFile.write(path, snapshot);
+        // Rewriting replaces the file in place and leaves no temp file behind
+        ScoreSnapshotFile.write(path, snapshot);
+
+        assertEquals(snapshot, ScoreSnapshotFile.read(path));
+        assertFalse(Files.exists(dir.resolve("nested").resolve("index.snap.tmp")));
+    }
+
+    @Test
+    void damagedSnapshotsAreRejected(@TempDir Path dir) throws IOException {
+        Path path = dir.resolve("index.snap");
+        ScoreSnapshotFile.write(path, new ScoreSnapshot(LocalDateTime.now(), randomEntries(50, new Random(3))));
+        long size = Files.size(path);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer flipped = ByteBuffer.allocate(1);
+            channel.read(flipped, size / 2);
+            flipped.put(0, (byte) ~flipped.get(0)).rewind();
+            channel.write(flipped, size / 2);
+        }
+        assertThrows(IOException.class, () -> ScoreSnapshotFile.read(path));
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 20);
+        }
+        assertThrows(IOException.class, () -> ScoreSnapshotFile.read(path));
+    }
+
+    @Test
+    void bulkLoadedBoardMatchesIncrementalInserts() {
+        Random random = new Random(11);
+        List<ScoreEntry> entries = randomEntries(2_000, random);
+        RankBoard incremental = new RankBoard();
+        entries.forEach(incremental::put);
+        RankBoard bulk = new RankBoard();
+        bulk.load(entries);
+
+        assertEquals(incremental.size(), bulk.size());
+        assertEquals(incremental.countsByDifficulty(), bulk.countsByDifficulty());
+        for (String difficulty : new String[]{null, "EASY", "NIGHTMARE"}) {
+            RankTree expected = incremental.tree(difficulty);
+            RankTree actual = bulk.tree(difficulty);
+            assertEquals(expected.range(0, expected.size()), actual.range(0, actual.size()));
+            for (int i = 0; i < 50; i++) {
+                long seconds = random.nextInt(700);
+                assertEquals(expected.countLessThan(seconds), actual.countLessThan(seconds));
+            }
+        }
+
+        // The bulk-built trees stay valid treaps under later changes
+        ScoreEntry moved = entries.get(100);
+        bulk.put(new ScoreEntry(moved.getId(), moved.getPlayerId(), moved.getUsername(), "EASY", 1L, null));
+        incremental.put(new ScoreEntry(moved.getId(), moved.getPlayerId(), moved.getUsername(), "EASY", 1L, null));
+        bulk.remove(entries.get(200).getPlayerId());
+        incremental.remove(entries.get(200).getPlayerId());
+        assertEquals(incremental.tree(null).range(0, incremental.size()), bulk.tree(null).range(0, bulk.size()));
+        assertEquals(incremental.tree("EASY").indexOf(bulk.get(moved.getPlayerId())),
+                bulk.tree("EASY").indexOf(bulk.get(moved.getPlayerId())));
+    }
+
+    // Distinct players in leaderboard order
+    private static List<ScoreEntry> randomEntries(int count, Random random) {
+        List<ScoreEntry> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            entries.add(new ScoreEntry((long) i + 1, "snapshot-" + i, "player" + i,
+                    DIFFICULTIES[random.nextInt(DIFFICULTIES.length)], 60L + random.nextInt(600),
+                    LocalDateTime.of(2026, 1, 1, 0, 0).plusSeconds(random.nextInt(1_000_000))));
+        }
+        entries.sort(Comparator.comparing(ScoreEntry::getCompletionTimeSeconds).thenComparing(ScoreEntry::getId));
+        return entries;
+    }
+}
@@ -0,0 +1,74 @@
+package com.fearjosh.ranking;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UsernameSearchIndexTests {
+
+    @Test
+    void ranksExactThenPrefixThenSubstringMatches() {
+        UsernameSearchIndex index = new UsernameSearchIndex();
+        assertFalse(index.isReady());
+        index.onIndexWarmed(new ScoreIndexWarmedEvent(List.of(
+                entry(1, "Josh", 500),
+                entry(2, "JoshRunner", 120),
+                entry(3, "FearJosh", 90),
+                entry(4, "joshua", 300),
+                entry(5, "Nobody", 60))));
+        assertTrue(index.isReady());
+
+        assertEquals(List.of("Josh", "JoshRunner", "joshua", "FearJosh"), usernames(index.search("JOSH", 10)));
+        assertEquals(List.of("Josh", "JoshRunner"), usernames(index.search("josh", 2)));
+        // Two characters are still substrings, as in the LIKE fallback; a single one only matches prefixes
+        assertEquals(List.of("JoshRunner", "joshua", "Josh", "FearJosh"), usernames(index.search("jo", 10)));
+        assertEquals(List.of("FearJosh"), usernames(index.search("rj", 10)));
+        assertEquals(List.of("Nobody"), usernames(index.search("n", 10)));
+        assertEquals(List.of("FearJosh"), usernames(index.search("F", 10)));
+        assertTrue(index.search("x", 10).isEmpty());
+        assertEquals(List.of("FearJosh"), usernames(index.search("arjo", 10)));
+        assertTrue(index.search("hsoj", 10).isEmpty());
+        assertTrue(index.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    void followsRenamesAndDeletes() {
+        UsernameSearchIndex index = new UsernameSearchIndex();
+        ScoreEntry original = entry(1, "Josh", 500);
+        index.onScoreChanged(new ScoreChangedEvent(null, original));
+        // Already superseded by the change above, so the warm-up copy is ignored
+        index.onIndexWarmed(new ScoreIndexWarmedEvent(List.of(entry(1, "Stale", 700), entry(2, "Other", 60))));
+
+        assertEquals(List.of("Josh"), usernames(index.search("josh", 10)));
+        assertTrue(index.search("stale", 10).isEmpty());
+
+        ScoreEntry renamed = entry(1, "Ghost", 400);
+        index.onScoreChanged(new ScoreChangedEvent(original, renamed));
+        assertTrue(index.search("josh", 10).isEmpty());
+        assertEquals(List.of("Ghost"), usernames(index.search("hos", 10)));
+
+        index.onScoreChanged(new ScoreChangedEvent(renamed, null));
+        assertTrue(index.search("ghost", 10).isEmpty());
+
+        // Enough churn to trigger compaction; survivors stay searchable
+        for (int i = 0; i < 3000; i++) {
+            index.onScoreChanged(new ScoreChangedEvent(null, entry(100, "churn" + i, 100)));
+        }
+        assertEquals(List.of("churn2999"), usernames(index.search("churn", 10)));
+        assertEquals(List.of("Other"), usernames(index.search("other", 10)));
+    }
+
+    private static ScoreEntry entry(long id, String username, long seconds) {
+        return new ScoreEntry(id, "player-" + id, username, "NORMAL", seconds, LocalDateTime.of(2024, 1, 1, 0, 0));
+    }
+
+    private static List<String> usernames(List<ScoreEntry> entries) {
+        return entries.stream().map(ScoreEntry::getUsername).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,61 @@
+package com.fearjosh.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsBurstThenRefillsAtTheConfiguredRate() {
+        RateLimitPolicy policy = RateLimitPolicy.of(10, 5);
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(now);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(policy, 1, now));
+        }
+        long wait = bucket.tryAcquire(policy, 1, now);
+        assertEquals(SECOND / 10, wait);
+        assertFalse(bucket.isFull(now));
+
+        assertEquals(0, bucket.tryAcquire(policy, 1, now + wait));
+        // Asking for more than is left takes nothing, so the single permit still succeeds later
+        assertTrue(bucket.tryAcquire(policy, 3, now + wait) > 0);
+        assertEquals(0, bucket.tryAcquire(policy, 1, now + 2 * wait));
+
+        assertTrue(bucket.isFull(now + SECOND));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(policy, 1, now + SECOND));
+        }
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheBurst() throws InterruptedException {
+        RateLimitPolicy policy = RateLimitPolicy.of(1, 100);
+        long now = System.nanoTime();
+        TokenBucket bucket = new TokenBucket(now);
+        AtomicInteger granted = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1_000; i++) {
+            executor.execute(() -> {
+                if (bucket.tryAcquire(policy, 1, now) == 0) {
+                    granted.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(100, granted.get());
+    }
+}
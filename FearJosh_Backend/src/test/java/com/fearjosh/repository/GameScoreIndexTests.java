@@ -0,0 +1,116 @@
+package com.fearjosh.repository;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class GameScoreIndexTests {
+
+    private static final String PLAYER_PREFIX = "index-test-";
+    private static final String[] DIFFICULTIES = {"EASY", "NORMAL", "HARD", "NIGHTMARE"};
+    private static final String TIME_THEN_ID = "order by \\w+\\.completion_time_seconds( asc)?,\\s*\\w+\\.id";
+
+    // Every statement Hibernate prepares, so the EXPLAINs run the repository's own SQL
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class StatementCapture {
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspector() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                    (StatementInspector) sql -> {
+                        STATEMENTS.add(sql);
+                        return sql;
+                    });
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private GameScoreRepository gameScoreRepository;
+
+    // Seeded straight through JDBC so the in-memory rank index used by the other tests is untouched
+    @BeforeEach
+    void seed() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            long seconds = 60 + (i * 7919L) % 7200;
+            rows.add(new Object[]{PLAYER_PREFIX + i, "indexer" + i, DIFFICULTIES[i % DIFFICULTIES.length],
+                    seconds, String.valueOf(seconds)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO game_scores (player_id, username, difficulty, completion_time_seconds,"
+                + " completion_time_formatted, completed_at) VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP)", rows);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM game_scores WHERE player_id LIKE ?", PLAYER_PREFIX + "%");
+    }
+
+    @Test
+    void leaderboardQueriesUseCompositeIndexes() {
+        String byDifficulty = statementOf(() ->
+                gameScoreRepository.findByDifficultyOrderByCompletionTimeSecondsAscIdAsc("HARD", PageRequest.of(0, 10)));
+        assertThat(byDifficulty).containsPattern(TIME_THEN_ID);
+        assertThat(explain(byDifficulty, "HARD", 10)).contains("idx_game_scores_difficulty_time_id");
+
+        String global = statementOf(() ->
+                gameScoreRepository.findAllByOrderByCompletionTimeSecondsAscIdAsc(PageRequest.of(0, 10)));
+        assertThat(global).containsPattern(TIME_THEN_ID);
+        assertThat(explain(global, 10)).contains("idx_game_scores_time_id");
+
+        assertThat(statementOf(() -> gameScoreRepository.findByDifficultyOrderByCompletionTimeSecondsAscIdAsc("HARD")))
+                .containsPattern(TIME_THEN_ID);
+        assertThat(statementOf(() -> gameScoreRepository.findAllByOrderByCompletionTimeSecondsAscIdAsc()))
+                .containsPattern(TIME_THEN_ID);
+
+        String page = statementOf(() ->
+                gameScoreRepository.findPageAfterByDifficulty("HARD", 600L, 0L, PageRequest.of(0, 50)));
+        assertThat(explain(page, "HARD", 600L, 600L, 0L, 50)).contains("idx_game_scores_difficulty_time_id");
+    }
+
+    @Test
+    void rankQueriesUseCompositeIndexes() {
+        String rank = statementOf(() -> gameScoreRepository.getPlayerRank("NORMAL", 900L));
+        assertThat(explain(rank, "NORMAL", 900L))
+                .contains("idx_game_scores_difficulty_time_id")
+                .contains("completion_time_seconds < ");
+
+        String globalRank = statementOf(() -> gameScoreRepository.getPlayerGlobalRank(900L));
+        assertThat(explain(globalRank, 900L)).contains("idx_game_scores_time_id");
+    }
+
+    // The last game_scores statement the query prepared
+    private String statementOf(Runnable query) {
+        STATEMENTS.clear();
+        query.run();
+        return STATEMENTS.stream()
+                .filter(sql -> sql.contains("game_scores"))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+    }
+
+    private String explain(String sql, Object... args) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, args);
+    }
+}
@@ -0,0 +1,82 @@
+package com.fearjosh.service;
+
+import com.fearjosh.dto.GameScoreRequest;
+import com.fearjosh.dto.SubmissionStatus;
+import com.fearjosh.dto.SubmissionStatusResponse;
+import com.fearjosh.exception.ResourceNotFoundException;
+import com.fearjosh.exception.TooManyRequestsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "fearjosh.ingestion.async.enabled=true",
+        "fearjosh.ingestion.async.threads=1",
+        "fearjosh.ingestion.async.queue-capacity=4",
+        "fearjosh.ingestion.async.ticket-ttl-minutes=0",
+        "fearjosh.ingestion.async.max-tickets=1",
+        // Purged by the test itself, not by the schedule
+        "fearjosh.ingestion.async.purge-interval-ms=3600000"
+})
+class AsyncSubmissionServiceTests {
+
+    private static final String PLAYER_ID = "async-test-player";
+    private static final String IDEMPOTENCY_KEY = "async-test-key";
+
+    @Autowired
+    private AsyncSubmissionService asyncSubmissionService;
+
+    @Autowired
+    private GameScoreService gameScoreService;
+
+    @Autowired
+    private SubmissionDeduplicator submissionDeduplicator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        asyncSubmissionService.purgeFinished();
+        if (gameScoreService.playerExists(PLAYER_ID)) {
+            gameScoreService.deleteScore(PLAYER_ID);
+        }
+        jdbcTemplate.update("DELETE FROM game_runs WHERE player_id = ?", PLAYER_ID);
+        jdbcTemplate.update("DELETE FROM submission_idempotency_keys WHERE idempotency_key = ?", IDEMPOTENCY_KEY);
+        submissionDeduplicator.clearLocal();
+    }
+
+    @Test
+    void submissionIsPolledUntilItReportsTheRank() throws Exception {
+        GameScoreRequest request = new GameScoreRequest(PLAYER_ID, "runner", "NORMAL", 300L);
+        SubmissionStatusResponse accepted = asyncSubmissionService.submit(request, IDEMPOTENCY_KEY);
+        assertEquals(PLAYER_ID, accepted.getPlayerId());
+        assertTrue(accepted.getStatus() == SubmissionStatus.QUEUED || accepted.getStatus() == SubmissionStatus.PROCESSING);
+        // Unpolled tickets count against the cap until they are purged
+        assertThrows(TooManyRequestsException.class, () -> asyncSubmissionService.submit(request, null));
+
+        SubmissionStatusResponse status = asyncSubmissionService.getStatus(accepted.getTicketId());
+        for (int i = 0; i < 100 && status.getCompletedAt() == null; i++) {
+            Thread.sleep(50);
+            status = asyncSubmissionService.getStatus(accepted.getTicketId());
+        }
+        assertEquals(SubmissionStatus.COMPLETED, status.getStatus());
+        assertEquals(300L, status.getScore().getCompletionTimeSeconds());
+        assertEquals(PLAYER_ID, status.getRank().getPlayerId());
+        assertNotNull(status.getRank().getRank());
+        // The key was stored in the worker's transaction, so a synchronous retry is replayed
+        assertEquals(status.getScore(), submissionDeduplicator.submit(IDEMPOTENCY_KEY, request));
+
+        Thread.sleep(5);
+        asyncSubmissionService.purgeFinished();
+        String ticketId = accepted.getTicketId();
+        assertThrows(ResourceNotFoundException.class, () -> asyncSubmissionService.getStatus(ticketId));
+    }
+}
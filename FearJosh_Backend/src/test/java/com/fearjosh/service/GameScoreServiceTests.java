@@ -0,0 +1,216 @@
+package com.fearjosh.service;
+
+import com.fearjosh.dto.BulkScoreResponse;
+import com.fearjosh.dto.BulkScoreResult;
+import com.fearjosh.dto.GameScoreRequest;
+import com.fearjosh.dto.GameScoreResponse;
+import com.fearjosh.dto.PlayerRunsResponse;
+import com.fearjosh.dto.SubmissionOutcome;
+import com.fearjosh.exception.DuplicateResourceException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class GameScoreServiceTests {
+
+    private static final String PLAYER_ID = "service-test-player";
+
+    @Autowired
+    private GameScoreService gameScoreService;
+
+    private static final String OTHER_PLAYER_ID = "service-test-other";
+    private static final String RUNNER_ID = "service-test-runner";
+    private static final String IDEMPOTENCY_KEY = "service-test-key";
+
+    @Autowired
+    private GameRunService gameRunService;
+
+    @Autowired
+    private SubmissionDeduplicator submissionDeduplicator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void cleanUp() {
+        for (String playerId : List.of(PLAYER_ID, OTHER_PLAYER_ID, RUNNER_ID)) {
+            if (gameScoreService.playerExists(playerId)) {
+                gameScoreService.deleteScore(playerId);
+            }
+        }
+        jdbcTemplate.update("DELETE FROM game_runs WHERE player_id = ?", RUNNER_ID);
+        jdbcTemplate.update("DELETE FROM submission_idempotency_keys WHERE idempotency_key = ?", IDEMPOTENCY_KEY);
+        submissionDeduplicator.clearLocal();
+    }
+
+    @Test
+    void submitScoreKeepsBestTimeAndReplacesOnDifficultyChange() {
+        GameScoreResponse created = gameScoreService.submitScore(new GameScoreRequest(PLAYER_ID, "first", "NORMAL", 300L));
+        assertNotNull(created.getId());
+        assertNotNull(created.getCompletedAt());
+        assertEquals("05:00", created.getCompletionTimeFormatted());
+
+        GameScoreResponse slower = gameScoreService.submitScore(new GameScoreRequest(PLAYER_ID, "second", "NORMAL", 400L));
+        assertEquals(300L, slower.getCompletionTimeSeconds());
+        assertEquals("first", slower.getUsername());
+        assertEquals(created.getId(), slower.getId());
+
+        GameScoreResponse faster = gameScoreService.submitScore(new GameScoreRequest(PLAYER_ID, "third", "NORMAL", 200L));
+        assertEquals(200L, faster.getCompletionTimeSeconds());
+        assertEquals("third", faster.getUsername());
+        assertEquals(created.getId(), faster.getId());
+
+        GameScoreResponse harder = gameScoreService.submitScore(new GameScoreRequest(PLAYER_ID, "fourth", "HARD", 3700L));
+        assertEquals("HARD", harder.getDifficulty());
+        assertEquals(3700L, harder.getCompletionTimeSeconds());
+        assertEquals("01:01:40", harder.getCompletionTimeFormatted());
+        assertEquals(created.getCompletedAt(), harder.getCompletedAt());
+
+        assertEquals("HARD", gameScoreService.getScoreByPlayerId(PLAYER_ID).getDifficulty());
+        assertEquals(1, gameScoreService.getPlayerRank(PLAYER_ID).getRank());
+    }
+
+    @Test
+    void submitScoreBatchMatchesSequentialSubmits() {
+        gameScoreService.submitScore(new GameScoreRequest(PLAYER_ID, "first", "NORMAL", 300L));
+
+        int changed = gameScoreService.submitScoreBatch(List.of(
+                new GameScoreRequest(PLAYER_ID, "slower", "NORMAL", 350L),
+                new GameScoreRequest(PLAYER_ID, "faster", "NORMAL", 250L),
+                new GameScoreRequest(PLAYER_ID, "fastest", "NORMAL", 240L),
+                new GameScoreRequest(PLAYER_ID, "slower again", "NORMAL", 245L)));
+
+        assertEquals(1, changed);
+        GameScoreResponse score = gameScoreService.getScoreByPlayerId(PLAYER_ID);
+        assertEquals(240L, score.getCompletionTimeSeconds());
+        assertEquals("fastest", score.getUsername());
+        assertEquals(240L, gameScoreService.getPlayerRank(PLAYER_ID).getCompletionTimeSeconds());
+
+        assertEquals(0, gameScoreService.submitScoreBatch(List.of(
+                new GameScoreRequest(PLAYER_ID, "too slow", "NORMAL", 500L))));
+
+        // A difficulty flip and flip-back within one batch ends on the slower run, as sequential submits do
+        gameScoreService.submitScore(new GameScoreRequest(OTHER_PLAYER_ID, "stored", "NORMAL", 50L));
+        assertEquals(1, gameScoreService.submitScoreBatch(List.of(
+                new GameScoreRequest(OTHER_PLAYER_ID, "flip", "HARD", 500L),
+                new GameScoreRequest(OTHER_PLAYER_ID, "flip back", "NORMAL", 200L))));
+        GameScoreResponse flipped = gameScoreService.getScoreByPlayerId(OTHER_PLAYER_ID);
+        assertEquals("NORMAL", flipped.getDifficulty());
+        assertEquals(200L, flipped.getCompletionTimeSeconds());
+        assertEquals(200L, gameScoreService.getPlayerRank(OTHER_PLAYER_ID).getCompletionTimeSeconds());
+    }
+
+    @Test
+    void submitScoresReportsPerItemOutcomesLikeSequentialSubmits() {
+        gameScoreService.submitScore(new GameScoreRequest(PLAYER_ID, "first", "HARD", 600L));
+
+        BulkScoreResponse response = gameScoreService.submitScores(List.of(
+                new GameScoreRequest(PLAYER_ID, "slower", "HARD", 700L),
+                new GameScoreRequest(OTHER_PLAYER_ID, "other", "EASY", 120L),
+                new GameScoreRequest(PLAYER_ID, "faster", "HARD", 500L),
+                new GameScoreRequest(OTHER_PLAYER_ID, "other slower", "EASY", 130L)));
+
+        assertEquals(4, response.getSubmitted());
+        assertEquals(1, response.getCreated());
+        assertEquals(1, response.getUpdated());
+        assertEquals(2, response.getUnchanged());
+        assertEquals(List.of(SubmissionOutcome.UNCHANGED, SubmissionOutcome.CREATED,
+                        SubmissionOutcome.UPDATED, SubmissionOutcome.UNCHANGED),
+                response.getResults().stream().map(BulkScoreResult::getOutcome).toList());
+        assertEquals(500L, response.getResults().get(0).getScore().getCompletionTimeSeconds());
+        assertEquals(120L, response.getResults().get(3).getScore().getCompletionTimeSeconds());
+
+        assertEquals("faster", gameScoreService.getScoreByPlayerId(PLAYER_ID).getUsername());
+        assertEquals(1, gameScoreService.getPlayerRank(OTHER_PLAYER_ID).getTotalPlayers());
+
+        // Flip to another difficulty and back within one request: every item changes the row
+        gameScoreService.submitScore(new GameScoreRequest(RUNNER_ID, "stored", "NORMAL", 50L));
+        BulkScoreResponse flipped = gameScoreService.submitScores(List.of(
+                new GameScoreRequest(RUNNER_ID, "flip", "HARD", 500L),
+                new GameScoreRequest(RUNNER_ID, "flip back", "NORMAL", 200L)));
+        assertEquals(List.of(SubmissionOutcome.UPDATED, SubmissionOutcome.UPDATED),
+                flipped.getResults().stream().map(BulkScoreResult::getOutcome).toList());
+        assertEquals("NORMAL", flipped.getResults().get(0).getScore().getDifficulty());
+        assertEquals(200L, flipped.getResults().get(0).getScore().getCompletionTimeSeconds());
+        assertEquals(200L, gameScoreService.getScoreByPlayerId(RUNNER_ID).getCompletionTimeSeconds());
+        assertEquals(200L, gameScoreService.getPlayerRank(RUNNER_ID).getCompletionTimeSeconds());
+    }
+
+    @Test
+    void everyRunIsKeptWhileGameScoresHoldsTheBest() {
+        gameScoreService.submitScore(new GameScoreRequest(RUNNER_ID, "runner", "EASY", 500L));
+        gameScoreService.submitScore(new GameScoreRequest(RUNNER_ID, "runner", "EASY", 450L));
+        gameScoreService.submitScores(List.of(
+                new GameScoreRequest(RUNNER_ID, "runner", "EASY", 600L),
+                new GameScoreRequest(RUNNER_ID, "runner", "EASY", 470L)));
+
+        assertEquals(450L, gameScoreService.getScoreByPlayerId(RUNNER_ID).getCompletionTimeSeconds());
+        PlayerRunsResponse history = gameScoreService.getPlayerRuns(RUNNER_ID, 3);
+        assertEquals(4, history.getTotalRuns());
+        assertEquals(List.of(470L, 600L, 450L),
+                history.getRuns().stream().map(GameScoreResponse::getCompletionTimeSeconds).toList());
+
+        jdbcTemplate.update("INSERT INTO game_runs (player_id, username, difficulty, completion_time_seconds,"
+                + " completed_at) VALUES (?, 'runner', 'EASY', 100, TIMESTAMP '2001-01-01 00:00:00')", RUNNER_ID);
+        assertEquals(5, gameScoreService.getPlayerRuns(RUNNER_ID, 10).getTotalRuns());
+        gameRunService.maintain();
+        assertEquals(4, gameScoreService.getPlayerRuns(RUNNER_ID, 10).getTotalRuns());
+    }
+
+    @Test
+    void retriedSubmissionWithSameIdempotencyKeyIsReplayed() {
+        GameScoreRequest request = new GameScoreRequest(RUNNER_ID, "runner", "NORMAL", 300L);
+        GameScoreResponse first = submissionDeduplicator.submit(IDEMPOTENCY_KEY, request);
+        assertEquals(first, submissionDeduplicator.submit(IDEMPOTENCY_KEY, request));
+
+        // Another instance, or this one after a restart, finds the key in the table
+        submissionDeduplicator.clearLocal();
+        assertEquals(first, submissionDeduplicator.submit(IDEMPOTENCY_KEY, request));
+        assertEquals(1, gameScoreService.getPlayerRuns(RUNNER_ID, 10).getTotalRuns());
+
+        assertThrows(DuplicateResourceException.class, () -> submissionDeduplicator.submit(IDEMPOTENCY_KEY,
+                new GameScoreRequest(RUNNER_ID, "runner", "NORMAL", 250L)));
+        submissionDeduplicator.clearLocal();
+        assertThrows(DuplicateResourceException.class, () -> submissionDeduplicator.submit(IDEMPOTENCY_KEY,
+                new GameScoreRequest(RUNNER_ID, "runner", "NORMAL", 250L)));
+        assertEquals(300L, gameScoreService.getScoreByPlayerId(RUNNER_ID).getCompletionTimeSeconds());
+    }
+
+    @Test
+    void playerLookupsAreCachedAndEvictedByJdbcUpserts() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        gameScoreService.submitScore(new GameScoreRequest(RUNNER_ID, "runner", "HARD", 900L));
+        assertEquals(900L, gameScoreService.getScoreByPlayerId(RUNNER_ID).getCompletionTimeSeconds());
+
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long naturalIdHits = statistics.getNaturalIdCacheHitCount();
+        assertEquals(900L, gameScoreService.getScoreByPlayerId(RUNNER_ID).getCompletionTimeSeconds());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > hits);
+        assertTrue(statistics.getNaturalIdCacheHitCount() > naturalIdHits);
+
+        gameScoreService.submitScore(new GameScoreRequest(RUNNER_ID, "faster", "HARD", 800L));
+        assertEquals("faster", gameScoreService.getScoreByPlayerId(RUNNER_ID).getUsername());
+        gameScoreService.submitScoreBatch(List.of(new GameScoreRequest(RUNNER_ID, "batched", "HARD", 700L)));
+        assertEquals(700L, gameScoreService.getScoreByPlayerId(RUNNER_ID).getCompletionTimeSeconds());
+
+        gameScoreService.deleteScore(RUNNER_ID);
+        assertFalse(gameScoreService.playerExists(RUNNER_ID));
+    }
+}
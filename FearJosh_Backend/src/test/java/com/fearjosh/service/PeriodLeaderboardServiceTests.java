@@ -0,0 +1,123 @@
+package com.fearjosh.service;
+
+import com.fearjosh.dto.GameScoreRequest;
+import com.fearjosh.dto.GameScoreResponse;
+import com.fearjosh.dto.PeriodLeaderboardResponse;
+import com.fearjosh.model.LeaderboardPeriod;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class PeriodLeaderboardServiceTests {
+
+    private static final String PLAYER_ID = "period-test-player";
+    private static final String OTHER_PLAYER_ID = "period-test-other";
+    private static final String ENDED_KEY = "2000-01-01";
+
+    @Autowired
+    private GameScoreService gameScoreService;
+
+    @Autowired
+    private PeriodLeaderboardService periodLeaderboardService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        for (String playerId : List.of(PLAYER_ID, OTHER_PLAYER_ID)) {
+            if (gameScoreService.playerExists(playerId)) {
+                gameScoreService.deleteScore(playerId);
+            }
+        }
+        jdbcTemplate.update("DELETE FROM period_scores WHERE period_key = ?", ENDED_KEY);
+        jdbcTemplate.update("DELETE FROM period_leaderboard_archive WHERE period_key = ?", ENDED_KEY);
+    }
+
+    @Test
+    void currentWindowsKeepTheBestRunOfThePeriod() {
+        gameScoreService.submitScore(new GameScoreRequest(PLAYER_ID, "josh", "NIGHTMARE", 300L));
+        gameScoreService.submitScore(new GameScoreRequest(OTHER_PLAYER_ID, "other", "NIGHTMARE", 250L));
+        gameScoreService.submitScore(new GameScoreRequest(PLAYER_ID, "josh", "NIGHTMARE", 200L));
+        gameScoreService.submitScore(new GameScoreRequest(PLAYER_ID, "josh", "NIGHTMARE", 900L));
+
+        String today = LocalDate.now(ZoneOffset.UTC).toString();
+        for (LeaderboardPeriod period : LeaderboardPeriod.values()) {
+            PeriodLeaderboardResponse board = gameScoreService.getPeriodLeaderboard(period, "NIGHTMARE", null, 10);
+            assertFalse(board.isArchived());
+            assertEquals(List.of(PLAYER_ID, OTHER_PLAYER_ID), playerIds(board));
+            assertEquals(200L, board.getLeaderboard().get(0).getCompletionTimeSeconds());
+            assertEquals(1, board.getLeaderboard().get(0).getRank());
+        }
+        assertEquals(today, gameScoreService.getPeriodLeaderboard(LeaderboardPeriod.DAILY, null, null, 10).getPeriodKey());
+
+        gameScoreService.deleteScore(OTHER_PLAYER_ID);
+        assertEquals(List.of(PLAYER_ID),
+                playerIds(gameScoreService.getPeriodLeaderboard(LeaderboardPeriod.WEEKLY, "NIGHTMARE", null, 10)));
+    }
+
+    @Test
+    void difficultyFlipWithinABatchEndsOnTheLastRun() {
+        gameScoreService.submitScore(new GameScoreRequest(PLAYER_ID, "josh", "NORMAL", 50L));
+        gameScoreService.submitScoreBatch(List.of(
+                new GameScoreRequest(PLAYER_ID, "josh", "HARD", 500L),
+                new GameScoreRequest(PLAYER_ID, "josh", "NORMAL", 200L)));
+
+        for (LeaderboardPeriod period : LeaderboardPeriod.values()) {
+            List<GameScoreResponse> normal = gameScoreService.getPeriodLeaderboard(period, "NORMAL", null, 500)
+                    .getLeaderboard().stream().filter(score -> score.getPlayerId().equals(PLAYER_ID)).toList();
+            assertEquals(1, normal.size());
+            assertEquals(200L, normal.get(0).getCompletionTimeSeconds());
+            assertFalse(playerIds(gameScoreService.getPeriodLeaderboard(period, "HARD", null, 500)).contains(PLAYER_ID));
+        }
+        assertEquals(List.of("NORMAL"), jdbcTemplate.queryForList(
+                "SELECT DISTINCT difficulty FROM period_scores WHERE player_id = ?", String.class, PLAYER_ID));
+        assertEquals(List.of(200L), jdbcTemplate.queryForList(
+                "SELECT DISTINCT completion_time_seconds FROM period_scores WHERE player_id = ?", Long.class, PLAYER_ID));
+    }
+
+    @Test
+    void endedWindowsAreCompactedIntoTheArchive() {
+        for (int i = 0; i < 150; i++) {
+            jdbcTemplate.update("INSERT INTO period_scores (period, period_key, period_ends_at, player_id, username,"
+                            + " difficulty, completion_time_seconds, completed_at)"
+                            + " VALUES ('DAILY', ?, TIMESTAMP '2000-01-02 00:00:00', ?, ?, ?, ?, TIMESTAMP '2000-01-01 12:00:00')",
+                    ENDED_KEY, "period-archive-" + i, "archived" + i, i % 2 == 0 ? "EASY" : "HARD", 1000L - i);
+        }
+
+        PeriodLeaderboardResponse live = gameScoreService.getPeriodLeaderboard(LeaderboardPeriod.DAILY, "HARD", ENDED_KEY, 5);
+        assertFalse(live.isArchived());
+        assertEquals(75, live.getTotalPlayers());
+
+        periodLeaderboardService.compactEndedWindows();
+
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM period_scores WHERE period_key = ?", Integer.class, ENDED_KEY));
+        PeriodLeaderboardResponse hard = gameScoreService.getPeriodLeaderboard(LeaderboardPeriod.DAILY, "HARD", ENDED_KEY, 5);
+        assertTrue(hard.isArchived());
+        assertEquals(75, hard.getTotalPlayers());
+        assertEquals(List.of("period-archive-149", "period-archive-147", "period-archive-145",
+                "period-archive-143", "period-archive-141"), playerIds(hard));
+        assertEquals(live.getLeaderboard(), hard.getLeaderboard());
+
+        PeriodLeaderboardResponse all = gameScoreService.getPeriodLeaderboard(LeaderboardPeriod.DAILY, null, ENDED_KEY, 500);
+        assertEquals(150, all.getTotalPlayers());
+        assertEquals(100, all.getLeaderboard().size());
+        assertEquals(100, all.getLeaderboard().get(99).getRank());
+    }
+
+    private static List<String> playerIds(PeriodLeaderboardResponse board) {
+        return board.getLeaderboard().stream().map(GameScoreResponse::getPlayerId).toList();
+    }
+}
@@ -0,0 +1,95 @@
+package com.fearjosh.service;
+
+import com.fearjosh.dto.GameScoreRequest;
+import com.fearjosh.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "fearjosh.ingestion.write-behind.enabled=true",
+        "fearjosh.ingestion.write-behind.batch-size=100",
+        "fearjosh.ingestion.write-behind.flush-interval-ms=200",
+        "fearjosh.ingestion.write-behind.max-attempts=2",
+        "fearjosh.ingestion.write-behind.retry-backoff-ms=1"
+})
+class ScoreIngestionServiceTests {
+
+    private static final String PLAYER_ID = "ingestion-test-player";
+    private static final String OTHER_PLAYER_ID = "ingestion-test-other";
+    private static final String BAD_PLAYER_ID = "ingestion-test-bad";
+
+    @Autowired
+    private ScoreIngestionService scoreIngestionService;
+
+    @Autowired
+    private GameScoreService gameScoreService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        for (String playerId : List.of(PLAYER_ID, OTHER_PLAYER_ID, BAD_PLAYER_ID)) {
+            if (gameScoreService.playerExists(playerId)) {
+                gameScoreService.deleteScore(playerId);
+            }
+            jdbcTemplate.update("DELETE FROM game_runs WHERE player_id = ?", playerId);
+        }
+    }
+
+    @Test
+    void stopDrainsEverythingAlreadyAccepted() throws Exception {
+        scoreIngestionService.enqueue(new GameScoreRequest(PLAYER_ID, "runner", "NORMAL", 300L));
+        scoreIngestionService.enqueue(new GameScoreRequest(PLAYER_ID, "runner", "NORMAL", 250L));
+        scoreIngestionService.enqueue(new GameScoreRequest(OTHER_PLAYER_ID, "other", "HARD", 400L));
+
+        scoreIngestionService.stop();
+        try {
+            assertEquals(250L, gameScoreService.getScoreByPlayerId(PLAYER_ID).getCompletionTimeSeconds());
+            assertEquals(400L, gameScoreService.getScoreByPlayerId(OTHER_PLAYER_ID).getCompletionTimeSeconds());
+            assertThrows(TooManyRequestsException.class,
+                    () -> scoreIngestionService.enqueue(new GameScoreRequest(PLAYER_ID, "runner", "NORMAL", 200L)));
+        } finally {
+            // The context is cached for the other tests, so bring the writer back
+            scoreIngestionService.start();
+        }
+    }
+
+    @Test
+    void failedBatchFallsBackToItemsAndCountsTheOneThatStillFails() throws Exception {
+        double deadLettersBefore = deadLetters();
+        // Longer than the username column, so the batch fails on every attempt and so does this item
+        GameScoreRequest bad = new GameScoreRequest(BAD_PLAYER_ID, "x".repeat(300), "NORMAL", 100L);
+
+        scoreIngestionService.enqueue(new GameScoreRequest(PLAYER_ID, "runner", "NORMAL", 300L));
+        scoreIngestionService.enqueue(new GameScoreRequest(OTHER_PLAYER_ID, "other", "HARD", 400L));
+        // Last, so the items ahead of it are stored by the time it is counted
+        scoreIngestionService.enqueue(bad);
+
+        for (int i = 0; i < 100 && deadLetters() == deadLettersBefore; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(deadLettersBefore + 1, deadLetters());
+        assertTrue(gameScoreService.playerExists(PLAYER_ID));
+        assertTrue(gameScoreService.playerExists(OTHER_PLAYER_ID));
+        assertFalse(gameScoreService.playerExists(BAD_PLAYER_ID));
+    }
+
+    private double deadLetters() {
+        return meterRegistry.counter("fearjosh.ingestion.dead_letter").count();
+    }
+}
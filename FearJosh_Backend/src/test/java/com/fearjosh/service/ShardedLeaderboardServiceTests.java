@@ -0,0 +1,185 @@
+package com.fearjosh.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fearjosh.dto.BulkScoreResponse;
+import com.fearjosh.dto.BulkScoreResult;
+import com.fearjosh.dto.GameScoreRequest;
+import com.fearjosh.dto.GameScoreResponse;
+import com.fearjosh.dto.LeaderboardResponse;
+import com.fearjosh.dto.SubmissionOutcome;
+import com.fearjosh.exception.DuplicateResourceException;
+import com.fearjosh.exception.ResourceNotFoundException;
+import com.fearjosh.model.GameScore;
+import com.fearjosh.shard.ConsistentHashRing;
+import com.fearjosh.shard.ScoreShard;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Three in-process shards, each its own H2 database, checked against the answers a single
+ * table would give for the same submissions.
+ */
+class ShardedLeaderboardServiceTests {
+
+    private static final String[] DIFFICULTIES = {"EASY", "NORMAL", "HARD"};
+
+    private ShardedLeaderboardService service;
+
+    @BeforeEach
+    void openShards() {
+        List<ScoreShard> shards = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            shards.add(ScoreShard.open("shard-" + i, "jdbc:h2:mem:shard_test_" + i
+                    + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH", "sa", "", 2));
+        }
+        service = new ShardedLeaderboardService(shards, 64, 5000, new ObjectMapper().findAndRegisterModules());
+    }
+
+    @AfterEach
+    void closeShards() {
+        service.close();
+    }
+
+    @Test
+    void scatterGatherMatchesASingleTable() {
+        Random random = new Random(21);
+        Map<String, GameScoreRequest> best = new HashMap<>();
+        for (int i = 0; i < 600; i++) {
+            String playerId = "player-" + random.nextInt(300);
+            GameScoreRequest request = new GameScoreRequest(playerId, playerId,
+                    DIFFICULTIES[random.nextInt(DIFFICULTIES.length)], 60L + random.nextInt(500));
+            service.submitScore(request);
+            GameScoreRequest held = best.get(playerId);
+            if (held == null || !held.getDifficulty().equals(request.getDifficulty())
+                    || request.getCompletionTimeSeconds() < held.getCompletionTimeSeconds()) {
+                best.put(playerId, request);
+            }
+        }
+
+        for (ScoreShard shard : service.getShards()) {
+            assertTrue(shard.getRepository().count(null) > 50, shard.getName() + " holds too few players");
+        }
+
+        // Ties on time are settled by the shard-local id, then playerId, as one sorted table would
+        Map<String, GameScore> stored = new HashMap<>();
+        for (ScoreShard shard : service.getShards()) {
+            shard.getRepository().findTop(null, 1000).forEach(score -> stored.put(score.getPlayerId(), score));
+        }
+        assertEquals(best.keySet(), stored.keySet());
+        Comparator<GameScore> order = Comparator.comparing(GameScore::getCompletionTimeSeconds)
+                .thenComparing(GameScore::getId)
+                .thenComparing(GameScore::getPlayerId);
+        List<GameScore> sorted = stored.values().stream().sorted(order).toList();
+        LeaderboardResponse top = service.getLeaderboard(null, 25);
+        assertEquals(best.size(), top.getTotalPlayers());
+        assertEquals(sorted.subList(0, 25).stream().map(GameScore::getPlayerId).toList(),
+                top.getLeaderboard().stream().map(GameScoreResponse::getPlayerId).toList());
+
+        List<GameScore> hard = sorted.stream().filter(score -> score.getDifficulty().equals("HARD")).toList();
+        LeaderboardResponse hardTop = service.getLeaderboard("HARD", 1000);
+        assertEquals(hard.size(), hardTop.getTotalPlayers());
+        assertEquals(hard.stream().map(GameScore::getPlayerId).toList(),
+                hardTop.getLeaderboard().stream().map(GameScoreResponse::getPlayerId).toList());
+
+        List<GameScoreRequest> global = best.values().stream()
+                .sorted(Comparator.comparing(GameScoreRequest::getCompletionTimeSeconds)).toList();
+
+        for (GameScoreRequest player : global.subList(0, 40)) {
+            long faster = best.values().stream()
+                    .filter(r -> r.getCompletionTimeSeconds() < player.getCompletionTimeSeconds()).count();
+            long fasterSameDifficulty = best.values().stream()
+                    .filter(r -> r.getDifficulty().equals(player.getDifficulty()))
+                    .filter(r -> r.getCompletionTimeSeconds() < player.getCompletionTimeSeconds()).count();
+            assertEquals(faster + 1, (long) service.getPlayerGlobalRank(player.getPlayerId()).getRank());
+            assertEquals(fasterSameDifficulty + 1, (long) service.getPlayerRank(player.getPlayerId()).getRank());
+        }
+
+        String removed = sorted.get(0).getPlayerId();
+        service.deleteScore(removed);
+        assertFalse(service.playerExists(removed));
+        assertThrows(ResourceNotFoundException.class, () -> service.getPlayerRank(removed));
+        assertEquals(sorted.get(1).getPlayerId(), service.getLeaderboard(null, 1).getLeaderboard().get(0).getPlayerId());
+    }
+
+    @Test
+    void bulkAndIdempotentSubmissionsLandOnThePlayersShards() {
+        service.submitScore(new GameScoreRequest("flipper", "Flipper", "NORMAL", 50L));
+        List<GameScoreRequest> items = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            items.add(new GameScoreRequest("bulk-" + i, "Bulk " + i, "EASY", 100L + i));
+        }
+        items.add(new GameScoreRequest("flipper", "Flipper", "HARD", 500L));
+        items.add(new GameScoreRequest("bulk-0", "Bulk 0", "EASY", 150L));
+        items.add(new GameScoreRequest("flipper", "Flipper", "NORMAL", 200L));
+
+        BulkScoreResponse response = service.submitScores(items);
+        assertEquals(33, response.getSubmitted());
+        assertEquals(30, response.getCreated());
+        assertEquals(2, response.getUpdated());
+        assertEquals(1, response.getUnchanged());
+        for (int i = 0; i < items.size(); i++) {
+            BulkScoreResult result = response.getResults().get(i);
+            assertEquals(i, result.getIndex());
+            assertEquals(items.get(i).getPlayerId(), result.getPlayerId());
+        }
+        assertEquals(SubmissionOutcome.UNCHANGED, response.getResults().get(31).getOutcome());
+        assertEquals(100L, response.getResults().get(31).getScore().getCompletionTimeSeconds());
+        GameScoreResponse flipper = service.getScoreByPlayerId("flipper");
+        assertEquals("NORMAL", flipper.getDifficulty());
+        assertEquals(200L, flipper.getCompletionTimeSeconds());
+        for (int i = 0; i < 30; i++) {
+            assertEquals(1, service.shardFor("bulk-" + i).getRepository().findByPlayerIds(List.of("bulk-" + i)).size());
+        }
+
+        GameScoreRequest run = new GameScoreRequest("keyed", "Keyed", "HARD", 300L);
+        LocalDateTime expiredBefore = LocalDateTime.now().minusDays(1);
+        GameScoreResponse first = service.submitScoreOnce("key-1", "fingerprint", run, expiredBefore);
+        service.submitScore(new GameScoreRequest("keyed", "Keyed", "HARD", 250L));
+        GameScoreResponse retried = service.submitScoreOnce("key-1", "fingerprint", run, expiredBefore);
+        assertEquals(first.getId(), retried.getId());
+        assertEquals(300L, retried.getCompletionTimeSeconds());
+        assertThrows(DuplicateResourceException.class,
+                () -> service.submitScoreOnce("key-1", "other", run, expiredBefore));
+        assertTrue(service.shardFor("keyed").getIdempotencyKeys().find("key-1").isPresent());
+        assertEquals(1, service.purgeIdempotencyKeys(LocalDateTime.now().plusMinutes(1)));
+    }
+
+    @Test
+    void addingAShardMovesAboutItsShareOfPlayers() {
+        Map<String, String> four = new LinkedHashMap<>();
+        for (int i = 0; i < 4; i++) {
+            four.put("shard-" + i, "shard-" + i);
+        }
+        Map<String, String> five = new LinkedHashMap<>(four);
+        five.put("shard-4", "shard-4");
+        ConsistentHashRing<String> before = new ConsistentHashRing<>(four, 128);
+        ConsistentHashRing<String> after = new ConsistentHashRing<>(five, 128);
+
+        int moved = 0;
+        int players = 20_000;
+        for (int i = 0; i < players; i++) {
+            String owner = after.nodeFor("player-" + i);
+            if (!owner.equals(before.nodeFor("player-" + i))) {
+                // Keys only ever move to the new shard
+                assertEquals("shard-4", owner);
+                moved++;
+            }
+        }
+        assertTrue(moved > players / 8 && moved < players / 3, "moved " + moved);
+    }
+}